@@ -0,0 +1,301 @@
+package com.johnturkson.courses;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+public class Benchmark {
+    private static final List<String> LEGACY_SECTION_PATTERNS = List.of("<h4>" +
+                    "(?<subject>[^\\s]+)\\s" +
+                    "(?<code>[^\\s]+)\\s" +
+                    "(?<name>[^<]+)\\s" +
+                    "\\((?<activity>[^)]*)\\)" +
+                    "</h4>" +
+                    ".+?" +
+                    "<b>Term (?<term>\\d+)</b>",
+            "<td>(?<term>\\d+)</td>" +
+                    "<td>(?<days>[^<]*)</td>" +
+                    "<td>(?<startHour>[0-9]|[0-1][0-9]|[2][0-3]):(?<startMinute>[0-5][0-9])</td>" +
+                    "<td>(?<endHour>[0-9]|[0-1][0-9]|[2][0-3]):(?<endMinute>[0-5][0-9])</td>" +
+                    "<td>(?<name>[^<]*)</td>" +
+                    "<td>(?:<[^>]*buildingID=(?<code>[^&]*)[^>]*>)?(?<room>[^<]*)(?:<[^>]*>)?</td>",
+            "<tr>" +
+                    "<td[^>]*>Total Seats Remaining[^:]*:</td>" +
+                    "<td[^>]*>(?:<[^>]*>)*(?<totalSeatsRemaining>\\d+)(?:</[^>]*>)*</td>" +
+                    "</tr>\\s*" +
+                    "<tr>" +
+                    "<td[^>]*>Currently Registered[^:]*:</td>" +
+                    "<td[^>]*>(?:<[^>]*>)*(?<currentlyRegistered>\\d+)(?:</[^>]*>)*</td>" +
+                    "</tr>\\s*" +
+                    "<tr>" +
+                    "<td[^>]*>General Seats Remaining[^:]*:</td>" +
+                    "<td[^>]*>(?:<[^>]*>)*(?<generalSeatsRemaining>\\d+)(?:</[^>]*>)*</td>" +
+                    "</tr>\\s*" +
+                    "<tr>" +
+                    "<td[^>]*>Restricted Seats Remaining[^:]*:</td>" +
+                    "<td[^>]*>(?:<[^>]*>)*(?<restrictedSeatsRemaining>\\d+)(?:</[^>]*>)*</td>" +
+                    "</tr>",
+            "<td>Instructor:\\s*</td>" +
+                    "<td>(?:<[^>]*>)?(?<instructor>[^<]*)(?:<[^>]*>)?</td>");
+    
+    public static void main(String... args) {
+        if (args.length < 2) {
+            System.out.println("Usage: Benchmark parse <section page> [iterations]");
+            System.out.println("       Benchmark track <section page> [sections] [latency ms]");
+            System.out.println("       Benchmark snapshot <section page> [sections]");
+            System.out.println("       Benchmark search <courses json> <query> [iterations]");
+            System.out.println("       Benchmark crawl <section page> [subjects] [courses] [sections] [latency ms]");
+            return;
+        }
+        
+        if (args[0].equals("parse")) {
+            parse(read(args[1]), args.length > 2 ? Integer.parseInt(args[2]) : 10000);
+        } else if (args[0].equals("track")) {
+            track(read(args[1]), args.length > 2 ? Integer.parseInt(args[2]) : 1000,
+                    Duration.ofMillis(args.length > 3 ? Long.parseLong(args[3]) : 200));
+        } else if (args[0].equals("snapshot")) {
+            snapshot(read(args[1]), args.length > 2 ? Integer.parseInt(args[2]) : 50000);
+        } else if (args[0].equals("search")) {
+            search(Courses.importFromJSON(Paths.get(args[1])), args.length > 2 ? args[2] : "",
+                    args.length > 3 ? Integer.parseInt(args[3]) : 10000);
+        } else if (args[0].equals("crawl")) {
+            crawl(read(args[1]),
+                    args.length > 2 ? Integer.parseInt(args[2]) : 10,
+                    args.length > 3 ? Integer.parseInt(args[3]) : 20,
+                    args.length > 4 ? Integer.parseInt(args[4]) : 10,
+                    Duration.ofMillis(args.length > 5 ? Long.parseLong(args[5]) : 50));
+        } else {
+            throw new IllegalArgumentException("Unknown benchmark: " + args[0]);
+        }
+    }
+    
+    private static void parse(String page, int iterations) {
+        List<Pattern> compiled = LEGACY_SECTION_PATTERNS.stream()
+                .map(Pattern::compile)
+                .collect(Collectors.toList());
+        
+        report("Regex, compiled per page", iterations, p -> {
+            for (String pattern : LEGACY_SECTION_PATTERNS) {
+                drain(Pattern.compile(pattern).matcher(p));
+            }
+        }, page);
+        report("Regex, precompiled", iterations, p -> {
+            for (Pattern pattern : compiled) {
+                drain(pattern.matcher(p));
+            }
+        }, page);
+        report("SectionPageParser", iterations, p -> SectionPageParser.parse(p).getSection(""), page);
+    }
+    
+    private static void track(String page, int count, Duration latency) {
+        StubServer server = StubServer.newBuilder()
+                .pages(uri -> Optional.of(page))
+                .latency(latency)
+                .build()
+                .start();
+        Transport.setDefault(Transport.newBuilder()
+                .endpoint(server.getEndpoint())
+                .limiter(RateLimiter.newBuilder()
+                        .maxConcurrentRequests(count)
+                        .requestsPerSecond(0)
+                        .build())
+                .noCache()
+                .build());
+        
+        SectionPageParser parser = SectionPageParser.parse(page);
+        List<Section> sections = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            sections.add(Section.newBuilder()
+                    .subject("BENCH")
+                    .course("100")
+                    .code(String.format("%03d", i))
+                    .activity("Lecture")
+                    .term(1)
+                    .schedule(parser.getSchedule())
+                    .instructor(parser.getInstructor())
+                    .seats(parser.getSeats())
+                    .url("")
+                    .build());
+        }
+        
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        for (ExecutionMode mode : ExecutionMode.values()) {
+            if (!mode.isSupported()) {
+                System.out.printf("%-28s %s%n", mode.getName(), "not supported by this runtime");
+                continue;
+            }
+            
+            SectionTracker tracker = SectionTracker.newBuilder()
+                    .trackedSections(sections)
+                    .executionMode(mode)
+                    .build();
+            threads.resetPeakThreadCount();
+            long start = System.nanoTime();
+            tracker.checkForUpdates();
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("%-28s %10.2f ms, %d sections, peak %d threads%n", mode.getName(), elapsed / 1e6,
+                    count, threads.getPeakThreadCount());
+        }
+        server.stop();
+    }
+    
+    private static void snapshot(String page, int count) {
+        SectionPageParser parser = SectionPageParser.parse(page);
+        List<Section> sections = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            sections.add(Section.newBuilder()
+                    .subject(String.format("S%03d", i / 500))
+                    .course(String.valueOf(100 + i / 10 % 50))
+                    .code(String.format("%03d", i % 10))
+                    .activity(i % 3 == 0 ? "Laboratory" : "Lecture")
+                    .term(1 + i % 2)
+                    .schedule(parser.getSchedule())
+                    .instructor(parser.getInstructor())
+                    .seats(parser.getSeats())
+                    .url("/cs/courseschedule?section=" + i)
+                    .build());
+        }
+        
+        try {
+            Path json = Files.createTempFile("sections", ".json");
+            Path snapshot = Files.createTempFile("sections", ".snapshot");
+            Sections.exportAsJSON(sections, json);
+            Sections.exportAsSnapshot(sections, snapshot);
+            System.out.printf("%-28s %10d bytes%n", "JSON size", Files.size(json));
+            System.out.printf("%-28s %10d bytes%n", "Snapshot size", Files.size(snapshot));
+            
+            load("JSON import", () -> Sections.importFromJSON(json));
+            load("Snapshot open", () -> SectionSnapshot.open(snapshot).getSections());
+            load("Snapshot full decode", () -> new ArrayList<>(Sections.importFromSnapshot(snapshot)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private static void load(String name, Supplier<List<Section>> loader) {
+        for (int i = 0; i < 3; i++) {
+            loader.get();
+        }
+        
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long before = runtime.totalMemory() - runtime.freeMemory();
+        long start = System.nanoTime();
+        List<Section> loaded = loader.get();
+        long elapsed = System.nanoTime() - start;
+        System.gc();
+        long retained = runtime.totalMemory() - runtime.freeMemory() - before;
+        System.out.printf("%-28s %10.2f ms, %d sections, %d KB retained%n", name, elapsed / 1e6,
+                loaded.size(), Math.max(0, retained) / 1024);
+    }
+    
+    private static void search(List<Course> courses, String query, int iterations) {
+        long start = System.nanoTime();
+        CourseIndex index = CourseIndex.newBuilder().courses(courses).build();
+        System.out.printf("%-28s %10.2f ms, %d courses, %d terms, %d posting bytes%n", "Index build",
+                (System.nanoTime() - start) / 1e6, index.size(), index.getTermCount(), index.getPostingBytes());
+        
+        String pattern = "(?i).*" + Pattern.quote(query.replace("\"", "")) + ".*";
+        report("Regex scan", iterations / 10 + 1, q -> courses.stream()
+                .filter(c -> (c.getName() + " " + c.getDescription()).matches(pattern))
+                .limit(10)
+                .count(), query);
+        report("CourseIndex", iterations, q -> index.search(q, 10), query);
+        index.search(query, 10).forEach(System.out::println);
+    }
+    
+    private static void crawl(String page, int subjects, int courses, int sections, Duration latency) {
+        StubServer server = StubServer.newBuilder()
+                .pages(uri -> Optional.of(getCatalogPage(uri.getQuery(), page, courses, sections)))
+                .latency(latency)
+                .build()
+                .start();
+        Transport.setDefault(Transport.newBuilder()
+                .endpoint(server.getEndpoint())
+                .limiter(RateLimiter.newBuilder()
+                        .maxConcurrentRequests(64)
+                        .requestsPerSecond(0)
+                        .build())
+                .build());
+        
+        try {
+            Path output = Files.createTempDirectory("crawl");
+            Crawler.Builder builder = Crawler.newBuilder().output(output);
+            for (int i = 0; i < subjects; i++) {
+                builder.subject(String.format("S%03d", i));
+            }
+            
+            System.out.printf("%-28s %s%n", "Crawl", builder.build().crawl());
+            System.out.printf("%-28s %s%n", "Resumed crawl", builder.build().crawl());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            server.stop();
+        }
+    }
+    
+    private static String getCatalogPage(String query, String page, int courses, int sections) {
+        String subject = query.replaceAll(".*dept=([^&]*).*", "$1");
+        StringBuilder listing = new StringBuilder();
+        if (query.contains("tname=subj-department")) {
+            for (int i = 0; i < courses; i++) {
+                listing.append("<tr class=section1><td><a href=/cs/courseschedule?pname=subjarea&amp;tname=subj-course&amp;")
+                        .append("dept=").append(subject).append("&amp;course=").append(100 + i).append(">")
+                        .append(subject).append(" ").append(100 + i).append("</a></td><td>Course</td></a></tr>");
+            }
+        } else if (query.contains("tname=subj-course")) {
+            String course = query.replaceAll(".*course=([^&]*).*", "$1");
+            for (int i = 0; i < sections; i++) {
+                listing.append("<tr class=section1><td></td><td><a href=/cs/courseschedule?pname=subjarea&amp;tname=subj-section&amp;")
+                        .append("dept=").append(subject).append("&amp;course=").append(course)
+                        .append("&amp;section=").append(String.format("%03d", i)).append(" title=section>")
+                        .append(subject).append(" ").append(course).append(" ").append(String.format("%03d", i))
+                        .append("</a></td><td>Lecture</td><td>1</td>");
+            }
+        } else {
+            return page;
+        }
+        return listing.toString();
+    }
+    
+    private static void drain(Matcher matcher) {
+        while (matcher.find()) {
+            matcher.group();
+        }
+    }
+    
+    private static void report(String name, int iterations, Consumer<String> task, String input) {
+        for (int i = 0; i < iterations / 10 + 1; i++) {
+            task.accept(input);
+        }
+        
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            task.accept(input);
+        }
+        long elapsed = System.nanoTime() - start;
+        
+        System.out.printf("%-28s %10.2f us/op%n", name, elapsed / 1e3 / iterations);
+    }
+    
+    private static String read(String path) {
+        try {
+            return Files.readString(Paths.get(path));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
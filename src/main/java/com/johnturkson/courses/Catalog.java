@@ -0,0 +1,212 @@
+package com.johnturkson.courses;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+public class Catalog {
+    private Map<String, Subject> subjects;
+    private Map<String, Subject> subjectsByName;
+    private Map<String, Course> courses;
+    private Map<String, Section> sections;
+    private Map<String, Set<String>> coursesBySubject;
+    private Map<String, Set<String>> sectionsByCourse;
+    private Map<String, Set<String>> sectionsByActivity;
+    private Map<Integer, Set<String>> sectionsByTerm;
+    private Map<String, Set<String>> sectionsByInstructor;
+    private Map<String, Set<String>> sectionsByBuilding;
+    
+    private Catalog() {
+        this.subjects = new LinkedHashMap<>();
+        this.subjectsByName = new HashMap<>();
+        this.courses = new LinkedHashMap<>();
+        this.sections = new LinkedHashMap<>();
+        this.coursesBySubject = new HashMap<>();
+        this.sectionsByCourse = new HashMap<>();
+        this.sectionsByActivity = new HashMap<>();
+        this.sectionsByTerm = new HashMap<>();
+        this.sectionsByInstructor = new HashMap<>();
+        this.sectionsByBuilding = new HashMap<>();
+    }
+    
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+    
+    private static String getKey(String subject, String course) {
+        return subject.trim() + " " + course.trim();
+    }
+    
+    private static String getKey(String subject, String course, String code) {
+        return subject.trim() + " " + course.trim() + " " + code.trim();
+    }
+    
+    private static String getKey(Section section) {
+        return getKey(section.getSubject(), section.getCourse(), section.getCode());
+    }
+    
+    public synchronized void add(Subject subject) {
+        Subject previous = subjects.put(subject.getCode().trim(), subject);
+        if (previous != null) {
+            subjectsByName.remove(previous.getName().trim());
+        }
+        subjectsByName.put(subject.getName().trim(), subject);
+    }
+    
+    public synchronized void add(Course course) {
+        String key = getKey(course.getSubject(), course.getCode());
+        courses.put(key, course);
+        coursesBySubject.computeIfAbsent(course.getSubject().trim(), k -> new LinkedHashSet<>()).add(key);
+    }
+    
+    public synchronized void add(Section section) {
+        String key = getKey(section);
+        Section previous = sections.put(key, section);
+        if (previous != null) {
+            unindex(key, previous);
+        }
+        index(key, section);
+    }
+    
+    public synchronized boolean remove(Section section) {
+        String key = getKey(section);
+        Section previous = sections.remove(key);
+        if (previous == null) {
+            return false;
+        }
+        unindex(key, previous);
+        remove(sectionsByCourse, getKey(previous.getSubject(), previous.getCourse()), key);
+        return true;
+    }
+    
+    public synchronized void update(Map<Section, List<SectionTracker.Change>> updates) {
+        updates.keySet().forEach(this::add);
+    }
+    
+    public synchronized Optional<Subject> getSubject(String code) {
+        return Optional.ofNullable(subjects.get(code.trim()));
+    }
+    
+    public synchronized Optional<Subject> getSubjectByName(String name) {
+        return Optional.ofNullable(subjectsByName.get(name.trim()));
+    }
+    
+    public synchronized Optional<Course> getCourse(String subject, String course) {
+        return Optional.ofNullable(courses.get(getKey(subject, course)));
+    }
+    
+    public synchronized Optional<Section> getSection(String subject, String course, String code) {
+        return Optional.ofNullable(sections.get(getKey(subject, course, code)));
+    }
+    
+    public synchronized List<Subject> getSubjects() {
+        return new ArrayList<>(subjects.values());
+    }
+    
+    public synchronized List<Course> getCourses(String subject) {
+        return lookup(coursesBySubject.get(subject.trim()), courses::get);
+    }
+    
+    public synchronized List<Section> getSections() {
+        return new ArrayList<>(sections.values());
+    }
+    
+    public synchronized List<Section> getSections(String subject, String course) {
+        return lookup(sectionsByCourse.get(getKey(subject, course)), sections::get);
+    }
+    
+    public synchronized List<Section> getSectionsByActivity(String activity) {
+        return lookup(sectionsByActivity.get(activity), sections::get);
+    }
+    
+    public synchronized List<Section> getSectionsByTerm(int term) {
+        return lookup(sectionsByTerm.get(term), sections::get);
+    }
+    
+    public synchronized List<Section> getSectionsByInstructor(String instructor) {
+        return lookup(sectionsByInstructor.get(instructor.trim()), sections::get);
+    }
+    
+    public synchronized List<Section> getSectionsByBuilding(String code) {
+        return lookup(sectionsByBuilding.get(code.trim()), sections::get);
+    }
+    
+    public synchronized int size() {
+        return sections.size();
+    }
+    
+    private void index(String key, Section section) {
+        sectionsByCourse.computeIfAbsent(getKey(section.getSubject(), section.getCourse()), k -> new LinkedHashSet<>())
+                .add(key);
+        sectionsByActivity.computeIfAbsent(section.getActivity(), k -> new LinkedHashSet<>()).add(key);
+        sectionsByTerm.computeIfAbsent(section.getTerm(), k -> new LinkedHashSet<>()).add(key);
+        sectionsByInstructor.computeIfAbsent(section.getInstructor().trim(), k -> new LinkedHashSet<>()).add(key);
+        for (Location location : section.getSchedule().values()) {
+            if (location.getCode() != null && !location.getCode().isEmpty()) {
+                sectionsByBuilding.computeIfAbsent(location.getCode(), k -> new LinkedHashSet<>()).add(key);
+            }
+        }
+    }
+    
+    private void unindex(String key, Section section) {
+        remove(sectionsByActivity, section.getActivity(), key);
+        remove(sectionsByTerm, section.getTerm(), key);
+        remove(sectionsByInstructor, section.getInstructor().trim(), key);
+        for (Location location : section.getSchedule().values()) {
+            remove(sectionsByBuilding, location.getCode(), key);
+        }
+    }
+    
+    private static <K> void remove(Map<K, Set<String>> index, K value, String key) {
+        Set<String> keys = index.get(value);
+        if (keys != null && keys.remove(key) && keys.isEmpty()) {
+            index.remove(value);
+        }
+    }
+    
+    private static <T> List<T> lookup(Collection<String> keys, Function<String, T> values) {
+        List<T> results = new ArrayList<>();
+        if (keys != null) {
+            for (String key : keys) {
+                results.add(values.apply(key));
+            }
+        }
+        return results;
+    }
+    
+    public static class Builder {
+        private List<Subject> subjects = new ArrayList<>();
+        private List<Course> courses = new ArrayList<>();
+        private List<Section> sections = new ArrayList<>();
+        
+        public Builder subjects(List<Subject> subjects) {
+            this.subjects.addAll(subjects);
+            return this;
+        }
+        
+        public Builder courses(List<Course> courses) {
+            this.courses.addAll(courses);
+            return this;
+        }
+        
+        public Builder sections(List<Section> sections) {
+            this.sections.addAll(sections);
+            return this;
+        }
+        
+        public Catalog build() {
+            Catalog catalog = new Catalog();
+            subjects.forEach(catalog::add);
+            courses.forEach(catalog::add);
+            sections.forEach(catalog::add);
+            return catalog;
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package com.johnturkson.courses;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+public class ChangeBus implements AutoCloseable {
+    private static final long WRITING = Long.MIN_VALUE;
+    private static final long IDLE_WAIT = TimeUnit.MILLISECONDS.toNanos(100);
+    private int capacity;
+    private int mask;
+    private int batchSize;
+    private Event[] slots;
+    private AtomicLongArray sequences;
+    private AtomicLong claimed;
+    private List<Subscription> subscriptions;
+    private volatile boolean closed;
+    
+    private ChangeBus(int capacity, int batchSize) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two of at least two events.");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least one event.");
+        }
+        
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.batchSize = batchSize;
+        this.slots = new Event[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i - capacity);
+        }
+        this.claimed = new AtomicLong();
+        this.subscriptions = new CopyOnWriteArrayList<>();
+    }
+    
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+    
+    public void publish(Map<Section, List<SectionTracker.Change>> updates) {
+        publish(new Event(LocalDateTime.now(), updates));
+    }
+    
+    public void publish(Event event) {
+        if (closed) {
+            throw new IllegalStateException("Change bus is closed.");
+        }
+        
+        long sequence = claimed.getAndIncrement();
+        int slot = (int) (sequence & mask);
+        // A producer a full lap ahead waits for the previous lap's producer rather than for any subscriber
+        while (sequences.get(slot) != sequence - capacity) {
+            Thread.onSpinWait();
+        }
+        sequences.set(slot, WRITING);
+        slots[slot] = event;
+        sequences.set(slot, sequence);
+        
+        for (Subscription subscription : subscriptions) {
+            if (subscription.waiting) {
+                LockSupport.unpark(subscription.thread);
+            }
+        }
+    }
+    
+    public Subscription subscribe(String name, Consumer<List<Event>> sink) {
+        if (closed) {
+            throw new IllegalStateException("Change bus is closed.");
+        }
+        
+        Subscription subscription = new Subscription(name, sink, claimed.get());
+        subscriptions.add(subscription);
+        subscription.thread.start();
+        return subscription;
+    }
+    
+    public List<Subscription> getSubscriptions() {
+        return List.copyOf(subscriptions);
+    }
+    
+    public long getPublished() {
+        return claimed.get();
+    }
+    
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    @Override
+    public void close() {
+        closed = true;
+        for (Subscription subscription : subscriptions) {
+            subscription.stop();
+        }
+    }
+    
+    public static Consumer<List<Event>> console() {
+        return events -> {
+            StringBuilder lines = new StringBuilder();
+            events.forEach(e -> describe(e, lines));
+            System.out.print(lines);
+        };
+    }
+    
+    public static Consumer<List<Event>> file(Path location) {
+        return file(() -> location);
+    }
+    
+    static Consumer<List<Event>> file(Supplier<Path> location) {
+        return events -> {
+            Path path = location.get();
+            if (path == null) {
+                throw new IllegalStateException("Export path is not set.");
+            }
+            
+            StringBuilder lines = new StringBuilder();
+            events.forEach(e -> describe(e, lines));
+            try {
+                Files.writeString(path, lines, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+    
+    public static Consumer<List<Event>> webhook(URI endpoint) {
+        return webhook(endpoint, Duration.ofSeconds(10), Duration.ofSeconds(30));
+    }
+    
+    // Bounded so that a stalled endpoint cannot keep close() waiting on the subscriber thread
+    public static Consumer<List<Event>> webhook(URI endpoint, Duration connectTimeout, Duration requestTimeout) {
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .build();
+        return events -> {
+            StringWriter body = new StringWriter();
+            try (JsonWriter json = new JsonWriter(body, "")) {
+                json.beginArray();
+                for (Event event : events) {
+                    for (SectionTracker.Change change : event.getChanges()) {
+                        json.beginObject()
+                                .name("time", change.getTime().toString())
+                                .name("subject", change.getSection().getSubject())
+                                .name("course", change.getSection().getCourse())
+                                .name("code", change.getSection().getCode())
+                                .name("field", change.getField())
+                                .name("oldValue", change.getOldValue())
+                                .name("newValue", change.getNewValue())
+                                .endObject();
+                    }
+                }
+                json.endArray();
+            }
+            
+            HttpRequest request = HttpRequest.newBuilder(endpoint)
+                    .timeout(requestTimeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString(), StandardCharsets.UTF_8))
+                    .build();
+            try {
+                int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (status / 100 != 2) {
+                    throw new IllegalStateException("Webhook " + endpoint + " responded with status " + status + ".");
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Webhook delivery was interrupted.", e);
+            }
+        };
+    }
+    
+    private static void describe(Event event, StringBuilder lines) {
+        if (event.getUpdates().isEmpty()) {
+            lines.append("[")
+                    .append(event.getTime().format(DateTimeFormatter.ofLocalizedDateTime(FormatStyle.SHORT)))
+                    .append("] No changes.\n");
+        } else {
+            event.getChanges().forEach(c -> lines.append(c).append('\n'));
+        }
+    }
+    
+    public static class Event {
+        private LocalDateTime time;
+        private Map<Section, List<SectionTracker.Change>> updates;
+        
+        public Event(LocalDateTime time, Map<Section, List<SectionTracker.Change>> updates) {
+            this.time = time;
+            this.updates = updates;
+        }
+        
+        public LocalDateTime getTime() {
+            return time;
+        }
+        
+        public Map<Section, List<SectionTracker.Change>> getUpdates() {
+            return updates;
+        }
+        
+        public List<SectionTracker.Change> getChanges() {
+            List<SectionTracker.Change> changes = new ArrayList<>();
+            updates.values().forEach(changes::addAll);
+            return changes;
+        }
+    }
+    
+    public class Subscription {
+        private String name;
+        private Consumer<List<Event>> sink;
+        private Thread thread;
+        private long cursor;
+        private AtomicLong delivered;
+        private AtomicLong dropped;
+        private AtomicLong failures;
+        private volatile long position;
+        private volatile boolean waiting;
+        private volatile boolean cancelled;
+        private volatile boolean draining;
+        
+        private Subscription(String name, Consumer<List<Event>> sink, long cursor) {
+            this.name = name;
+            this.sink = sink;
+            this.cursor = cursor;
+            this.position = cursor;
+            this.delivered = new AtomicLong();
+            this.dropped = new AtomicLong();
+            this.failures = new AtomicLong();
+            this.thread = new Thread(this::run, "change-bus-" + name);
+            this.thread.setDaemon(true);
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public long getDelivered() {
+            return delivered.get();
+        }
+        
+        public long getDropped() {
+            return dropped.get();
+        }
+        
+        public long getFailures() {
+            return failures.get();
+        }
+        
+        public long getLag() {
+            return Math.max(0, claimed.get() - position);
+        }
+        
+        public boolean isLagging() {
+            return getLag() > capacity / 2;
+        }
+        
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+            LockSupport.unpark(thread);
+        }
+        
+        private void stop() {
+            draining = true;
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            subscriptions.remove(this);
+        }
+        
+        private void run() {
+            List<Event> batch = new ArrayList<>(batchSize);
+            while (!cancelled) {
+                boolean finishing = draining;
+                while (batch.size() < batchSize) {
+                    Event event = next();
+                    if (event == null) {
+                        break;
+                    }
+                    batch.add(event);
+                }
+                
+                if (!batch.isEmpty()) {
+                    try {
+                        sink.accept(batch);
+                        delivered.addAndGet(batch.size());
+                    } catch (RuntimeException e) {
+                        failures.incrementAndGet();
+                    }
+                    batch.clear();
+                } else if (finishing) {
+                    return;
+                } else {
+                    waiting = true;
+                    if (cursor == claimed.get() && !draining && !cancelled) {
+                        LockSupport.parkNanos(this, IDLE_WAIT);
+                    }
+                    waiting = false;
+                }
+            }
+        }
+        
+        private Event next() {
+            while (true) {
+                int slot = (int) (cursor & mask);
+                long sequence = sequences.get(slot);
+                if (sequence == cursor) {
+                    Event event = slots[slot];
+                    if (sequences.get(slot) == cursor) {
+                        position = ++cursor;
+                        return event;
+                    }
+                } else if (sequence == WRITING || sequence < cursor) {
+                    if (claimed.get() - cursor <= capacity) {
+                        return null;
+                    }
+                }
+                
+                // The slot has been reused by a later lap, so skip to the oldest event still in the ring
+                long oldest = Math.max(cursor + 1, claimed.get() - capacity + 1);
+                dropped.addAndGet(oldest - cursor);
+                position = cursor = oldest;
+            }
+        }
+    }
+    
+    public static class Builder {
+        private int capacity = 1024;
+        private int batchSize = 256;
+        
+        public Builder capacity(int capacity) {
+            this.capacity = capacity;
+            return this;
+        }
+        
+        public Builder batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+        
+        public ChangeBus build() {
+            return new ChangeBus(capacity, batchSize);
+        }
+    }
+}
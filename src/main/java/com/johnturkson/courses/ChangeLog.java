@@ -0,0 +1,664 @@
+package com.johnturkson.courses;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+public class ChangeLog implements Closeable {
+    private static final int BLOCK_SIZE = 64 * 1024;
+    private static final int FRAME_HEADER = 8;
+    private static final int INDEX_MAGIC = 0x43484958;
+    private static final byte SECTION_RECORD = 1;
+    private static final byte CHANGE_RECORD = 2;
+    private Path directory;
+    private long segmentSize;
+    private Duration syncInterval;
+    private Duration retention;
+    private List<Segment> segments;
+    private Segment active;
+    private FileChannel channel;
+    private long lastSync;
+    private boolean unsynced;
+    
+    private ChangeLog(Path directory, long segmentSize, Duration syncInterval, Duration retention) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.syncInterval = syncInterval;
+        this.retention = retention;
+        this.segments = new ArrayList<>();
+        this.lastSync = System.nanoTime();
+    }
+    
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+    
+    public static ChangeLog open(Path directory) {
+        return newBuilder().directory(directory).build();
+    }
+    
+    private void load() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> paths;
+        try (Stream<Path> files = Files.list(directory)) {
+            paths = files.filter(p -> p.getFileName().toString().endsWith(".log"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        
+        for (int i = 0; i < paths.size(); i++) {
+            Segment segment = new Segment(paths.get(i));
+            boolean last = i == paths.size() - 1;
+            if (last || !segment.readIndex()) {
+                segment.scan();
+                if (!last) {
+                    segment.writeIndex();
+                }
+            }
+            segments.add(segment);
+        }
+        
+        if (segments.isEmpty()) {
+            segments.add(new Segment(directory.resolve(getSegmentName(0))));
+        }
+        active = segments.get(segments.size() - 1);
+        Files.deleteIfExists(active.getIndexPath());
+        channel = FileChannel.open(active.path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.truncate(active.size);
+        channel.position(active.size);
+    }
+    
+    private static String getSegmentName(long sequence) {
+        return String.format("%020d.log", sequence);
+    }
+    
+    private static String getKey(String subject, String course, String code) {
+        return subject.trim() + " " + course.trim() + " " + code.trim();
+    }
+    
+    private static String getKey(Section section) {
+        return getKey(section.getSubject(), section.getCourse(), section.getCode());
+    }
+    
+    // Saturates outside the years 1677 to 2262, so that bounds such as LocalDateTime.MIN and MAX do not wrap around
+    private static long toNanos(LocalDateTime time) {
+        long seconds = time.toEpochSecond(ZoneOffset.UTC);
+        if (seconds >= Long.MAX_VALUE / 1_000_000_000L) {
+            return Long.MAX_VALUE;
+        }
+        if (seconds <= Long.MIN_VALUE / 1_000_000_000L) {
+            return Long.MIN_VALUE;
+        }
+        return seconds * 1_000_000_000L + time.getNano();
+    }
+    
+    public synchronized void append(Map<Section, List<SectionTracker.Change>> updates) {
+        append(updates.values().stream().flatMap(List::stream).collect(Collectors.toList()));
+    }
+    
+    public synchronized void append(List<SectionTracker.Change> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+        for (SectionTracker.Change change : changes) {
+            active.encode(change, batch);
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(batch.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            unsynced = true;
+            if (syncInterval.isZero() || System.nanoTime() - lastSync >= syncInterval.toNanos()) {
+                sync();
+            }
+            if (active.size >= segmentSize) {
+                rotate();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    public synchronized void sync() {
+        if (!unsynced) {
+            return;
+        }
+        
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        unsynced = false;
+        lastSync = System.nanoTime();
+    }
+    
+    private void rotate() throws IOException {
+        sync();
+        channel.close();
+        active.writeIndex();
+        
+        long sequence = Long.parseLong(active.path.getFileName().toString().replace(".log", "")) + 1;
+        active = new Segment(directory.resolve(getSegmentName(sequence)));
+        segments.add(active);
+        channel = FileChannel.open(active.path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        if (retention != null) {
+            compact(LocalDateTime.now().minus(retention));
+        }
+    }
+    
+    public synchronized void compact(LocalDateTime before) {
+        long cutoff = toNanos(before);
+        List<Segment> retained = new ArrayList<>();
+        try {
+            for (Segment segment : segments) {
+                if (segment == active || segment.minTime >= cutoff) {
+                    retained.add(segment);
+                } else if (segment.maxTime < cutoff) {
+                    Files.deleteIfExists(segment.getIndexPath());
+                    Files.deleteIfExists(segment.path);
+                } else {
+                    retained.add(rewrite(segment, cutoff));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segments = retained;
+    }
+    
+    private Segment rewrite(Segment segment, long cutoff) throws IOException {
+        Path temporary = Paths.get(segment.path + ".compact");
+        Segment compacted = new Segment(temporary);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        for (int block = 0; block < segment.blocks; block++) {
+            for (SectionTracker.Change change : segment.read(block, null, cutoff, Long.MAX_VALUE)) {
+                compacted.encode(change, output);
+            }
+        }
+        Files.write(temporary, output.toByteArray());
+        
+        Files.deleteIfExists(segment.getIndexPath());
+        Files.move(temporary, segment.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        compacted.path = segment.path;
+        compacted.writeIndex();
+        return compacted;
+    }
+    
+    public List<SectionTracker.Change> getChanges(LocalDateTime from, LocalDateTime to) {
+        return query(null, from, to);
+    }
+    
+    public List<SectionTracker.Change> getChanges(String subject, String course, String code, LocalDateTime from,
+                                                  LocalDateTime to) {
+        return query(getKey(subject, course, code), from, to);
+    }
+    
+    public List<SectionTracker.Change> getChanges(Section section, LocalDateTime from, LocalDateTime to) {
+        return query(getKey(section), from, to);
+    }
+    
+    private synchronized List<SectionTracker.Change> query(String key, LocalDateTime from, LocalDateTime to) {
+        long start = toNanos(from);
+        long end = toNanos(to);
+        List<SectionTracker.Change> changes = new ArrayList<>();
+        try {
+            for (Segment segment : segments) {
+                if (segment.maxTime < start || segment.minTime > end) {
+                    continue;
+                }
+                
+                BitSet candidates = key == null ? null : segment.sections.get(key);
+                if (key != null && candidates == null) {
+                    continue;
+                }
+                for (int block = 0; block < segment.blocks; block++) {
+                    if ((candidates == null || candidates.get(block)) &&
+                            segment.blockMax[block] >= start && segment.blockMin[block] <= end) {
+                        changes.addAll(segment.read(block, key, start, end));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        changes.sort(Comparator.comparing(SectionTracker.Change::getTime));
+        return changes;
+    }
+    
+    public synchronized void clear() {
+        try {
+            channel.close();
+            for (Segment segment : segments) {
+                Files.deleteIfExists(segment.getIndexPath());
+                Files.deleteIfExists(segment.path);
+            }
+            segments.clear();
+            active = new Segment(directory.resolve(getSegmentName(0)));
+            segments.add(active);
+            channel = FileChannel.open(active.path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+    
+    public synchronized long getSize() {
+        return segments.stream().mapToLong(s -> s.size).sum();
+    }
+    
+    @Override
+    public synchronized void close() {
+        sync();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        Varints.write(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+    
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Varints.readInt(buffer)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    private static void writeSection(ByteArrayOutputStream out, Section section) {
+        writeString(out, section.getSubject());
+        writeString(out, section.getCourse());
+        writeString(out, section.getCode());
+        writeString(out, section.getActivity());
+        Varints.write(out, section.getTerm());
+        writeString(out, section.getInstructor());
+        writeString(out, section.getUrl());
+        Varints.write(out, Varints.encodeZigZag(section.getSeats().getTotalSeatsRemaining()));
+        Varints.write(out, Varints.encodeZigZag(section.getSeats().getCurrentlyRegistered()));
+        Varints.write(out, Varints.encodeZigZag(section.getSeats().getGeneralSeatsRemaining()));
+        Varints.write(out, Varints.encodeZigZag(section.getSeats().getRestrictedSeatsRemaining()));
+        Varints.write(out, section.getSchedule().size());
+        for (Map.Entry<Time, Location> entry : section.getSchedule().entrySet()) {
+            Time time = entry.getKey();
+            writeString(out, String.join(" ", time.getDays()));
+            Varints.write(out, time.getStartHour() * 60 + time.getStartMinute());
+            Varints.write(out, time.getEndHour() * 60 + time.getEndMinute());
+            writeString(out, entry.getValue().getName());
+            writeString(out, entry.getValue().getCode());
+            writeString(out, entry.getValue().getRoom());
+        }
+    }
+    
+    private static Section readSection(ByteBuffer buffer) {
+        Section.Builder builder = Section.newBuilder()
+                .subject(readString(buffer))
+                .course(readString(buffer))
+                .code(readString(buffer))
+                .activity(readString(buffer))
+                .term(Varints.readInt(buffer))
+                .instructor(readString(buffer))
+                .url(readString(buffer))
+                .seats(SeatInformation.newBuilder()
+                        .totalSeatsRemaining((int) Varints.decodeZigZag(Varints.read(buffer)))
+                        .currentlyRegistered((int) Varints.decodeZigZag(Varints.read(buffer)))
+                        .generalSeatsRemaining((int) Varints.decodeZigZag(Varints.read(buffer)))
+                        .restrictedSeatsRemaining((int) Varints.decodeZigZag(Varints.read(buffer)))
+                        .build());
+        
+        int entries = Varints.readInt(buffer);
+        Map<Time, Location> schedule = new LinkedHashMap<>();
+        for (int i = 0; i < entries; i++) {
+            String days = readString(buffer);
+            int start = Varints.readInt(buffer);
+            int end = Varints.readInt(buffer);
+            schedule.put(Time.newBuilder()
+                    .days(Arrays.asList(days.split(" ")))
+                    .startHour(start / 60)
+                    .startMinute(start % 60)
+                    .endHour(end / 60)
+                    .endMinute(end % 60)
+                    .build(), Location.newBuilder()
+                    .name(readString(buffer))
+                    .code(readString(buffer))
+                    .room(readString(buffer))
+                    .build());
+        }
+        return builder.schedule(schedule).build();
+    }
+    
+    // Every block defines a section again before its first change, so any block can be decoded on its own
+    private static class Segment {
+        private Path path;
+        private long size;
+        private int blocks;
+        private long[] blockOffsets = new long[16];
+        private long[] blockMin = new long[16];
+        private long[] blockMax = new long[16];
+        private long minTime = Long.MAX_VALUE;
+        private long maxTime = Long.MIN_VALUE;
+        private Map<String, BitSet> sections = new HashMap<>();
+        private Map<String, Integer> ids = new HashMap<>();
+        private List<Section> definitions = new ArrayList<>();
+        private ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        private CRC32 checksum = new CRC32();
+        
+        private Segment(Path path) {
+            this.path = path;
+        }
+        
+        private Path getIndexPath() {
+            return Paths.get(path.toString().replace(".log", ".idx"));
+        }
+        
+        private void startBlockIfFull(long offset) {
+            if (blocks == 0 || offset - blockOffsets[blocks - 1] >= BLOCK_SIZE) {
+                if (blocks == blockOffsets.length) {
+                    blockOffsets = Arrays.copyOf(blockOffsets, blocks * 2);
+                    blockMin = Arrays.copyOf(blockMin, blocks * 2);
+                    blockMax = Arrays.copyOf(blockMax, blocks * 2);
+                }
+                blockOffsets[blocks] = offset;
+                blockMin[blocks] = Long.MAX_VALUE;
+                blockMax[blocks] = Long.MIN_VALUE;
+                blocks++;
+                ids.clear();
+                definitions.clear();
+            }
+        }
+        
+        private void index(String key, long time) {
+            blockMin[blocks - 1] = Math.min(blockMin[blocks - 1], time);
+            blockMax[blocks - 1] = Math.max(blockMax[blocks - 1], time);
+            minTime = Math.min(minTime, time);
+            maxTime = Math.max(maxTime, time);
+            sections.computeIfAbsent(key, k -> new BitSet()).set(blocks - 1);
+        }
+        
+        private void encode(SectionTracker.Change change, ByteArrayOutputStream out) {
+            startBlockIfFull(size);
+            Section section = change.getSection();
+            String key = getKey(section);
+            Integer id = ids.get(key);
+            if (id == null || !definitions.get(id).equals(section) ||
+                    SectionState.diff(definitions.get(id), section) != 0) {
+                if (id == null) {
+                    id = definitions.size();
+                    ids.put(key, id);
+                    definitions.add(section);
+                } else {
+                    definitions.set(id, section);
+                }
+                payload.reset();
+                payload.write(SECTION_RECORD);
+                Varints.write(payload, id);
+                writeSection(payload, section);
+                frame(out);
+            }
+            
+            LocalDateTime time = change.getTime();
+            payload.reset();
+            payload.write(CHANGE_RECORD);
+            Varints.write(payload, id);
+            Varints.write(payload, Varints.encodeZigZag(time.toEpochSecond(ZoneOffset.UTC)));
+            Varints.write(payload, time.getNano());
+            writeString(payload, change.getField());
+            writeString(payload, change.getOldValue());
+            writeString(payload, change.getNewValue());
+            frame(out);
+            index(key, toNanos(time));
+        }
+        
+        private void frame(ByteArrayOutputStream out) {
+            checksum.reset();
+            byte[] bytes = payload.toByteArray();
+            checksum.update(bytes, 0, bytes.length);
+            ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER)
+                    .putInt(bytes.length)
+                    .putInt((int) checksum.getValue());
+            out.write(header.array(), 0, FRAME_HEADER);
+            out.write(bytes, 0, bytes.length);
+            size += FRAME_HEADER + bytes.length;
+        }
+        
+        private void scan() throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                boolean defined = false;
+                for (ByteBuffer record = nextFrame(buffer); record != null; record = nextFrame(buffer)) {
+                    if (!defined) {
+                        startBlockIfFull(size);
+                    }
+                    defined = record.get() == SECTION_RECORD;
+                    if (defined) {
+                        int id = Varints.readInt(record);
+                        Section section = readSection(record);
+                        ids.put(getKey(section), id);
+                        if (id == definitions.size()) {
+                            definitions.add(section);
+                        } else {
+                            definitions.set(id, section);
+                        }
+                    } else {
+                        Section section = definitions.get(Varints.readInt(record));
+                        long seconds = Varints.decodeZigZag(Varints.read(record));
+                        index(getKey(section), seconds * 1_000_000_000L + Varints.readInt(record));
+                    }
+                    size = buffer.position();
+                }
+            }
+        }
+        
+        private static ByteBuffer nextFrame(ByteBuffer buffer) {
+            if (buffer.remaining() < FRAME_HEADER) {
+                return null;
+            }
+            int length = buffer.getInt(buffer.position());
+            int crc = buffer.getInt(buffer.position() + 4);
+            if (length <= 0 || length > buffer.remaining() - FRAME_HEADER) {
+                return null;
+            }
+            
+            ByteBuffer record = buffer.duplicate();
+            record.position(buffer.position() + FRAME_HEADER).limit(buffer.position() + FRAME_HEADER + length);
+            CRC32 checksum = new CRC32();
+            checksum.update(record.duplicate());
+            if ((int) checksum.getValue() != crc) {
+                return null;
+            }
+            buffer.position(record.limit());
+            return record;
+        }
+        
+        private List<SectionTracker.Change> read(int block, String key, long start, long end) throws IOException {
+            long offset = blockOffsets[block];
+            long limit = block + 1 < blocks ? blockOffsets[block + 1] : size;
+            ByteBuffer buffer = ByteBuffer.allocate((int) (limit - offset));
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, offset + buffer.position()) < 0) {
+                        break;
+                    }
+                }
+            }
+            buffer.flip();
+            
+            List<SectionTracker.Change> changes = new ArrayList<>();
+            List<Section> sections = new ArrayList<>();
+            for (ByteBuffer record = nextFrame(buffer); record != null; record = nextFrame(buffer)) {
+                if (record.get() == SECTION_RECORD) {
+                    int id = Varints.readInt(record);
+                    Section section = readSection(record);
+                    if (id == sections.size()) {
+                        sections.add(section);
+                    } else {
+                        sections.set(id, section);
+                    }
+                    continue;
+                }
+                
+                Section section = sections.get(Varints.readInt(record));
+                long seconds = Varints.decodeZigZag(Varints.read(record));
+                int nanos = Varints.readInt(record);
+                long time = seconds * 1_000_000_000L + nanos;
+                if (time < start || time > end || (key != null && !key.equals(getKey(section)))) {
+                    continue;
+                }
+                changes.add(SectionTracker.Change.newBuilder()
+                        .time(LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC))
+                        .section(section)
+                        .field(readString(record))
+                        .oldValue(readString(record))
+                        .newValue(readString(record))
+                        .build());
+            }
+            return changes;
+        }
+        
+        private void writeIndex() throws IOException {
+            Path temporary = Paths.get(getIndexPath() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(INDEX_MAGIC);
+                out.writeLong(size);
+                out.writeInt(blocks);
+                for (int i = 0; i < blocks; i++) {
+                    out.writeLong(blockOffsets[i]);
+                    out.writeLong(blockMin[i]);
+                    out.writeLong(blockMax[i]);
+                }
+                out.writeInt(sections.size());
+                for (Map.Entry<String, BitSet> entry : sections.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    long[] words = entry.getValue().toLongArray();
+                    out.writeInt(words.length);
+                    for (long word : words) {
+                        out.writeLong(word);
+                    }
+                }
+            }
+            Files.move(temporary, getIndexPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            ids.clear();
+            definitions.clear();
+        }
+        
+        private boolean readIndex() throws IOException {
+            if (!Files.exists(getIndexPath())) {
+                return false;
+            }
+            
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(getIndexPath())))) {
+                if (in.readInt() != INDEX_MAGIC || in.readLong() != Files.size(path)) {
+                    return false;
+                }
+                size = Files.size(path);
+                blocks = in.readInt();
+                blockOffsets = new long[Math.max(1, blocks)];
+                blockMin = new long[Math.max(1, blocks)];
+                blockMax = new long[Math.max(1, blocks)];
+                for (int i = 0; i < blocks; i++) {
+                    blockOffsets[i] = in.readLong();
+                    blockMin[i] = in.readLong();
+                    blockMax[i] = in.readLong();
+                    minTime = Math.min(minTime, blockMin[i]);
+                    maxTime = Math.max(maxTime, blockMax[i]);
+                }
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    String key = in.readUTF();
+                    long[] words = new long[in.readInt()];
+                    for (int j = 0; j < words.length; j++) {
+                        words[j] = in.readLong();
+                    }
+                    sections.put(key, BitSet.valueOf(words));
+                }
+                return true;
+            } catch (IOException e) {
+                blocks = 0;
+                size = 0;
+                minTime = Long.MAX_VALUE;
+                maxTime = Long.MIN_VALUE;
+                sections.clear();
+                return false;
+            }
+        }
+    }
+    
+    public static class Builder {
+        private Path directory = Paths.get("output", "changes");
+        private long segmentSize = 64L * 1024 * 1024;
+        private Duration syncInterval = Duration.ofSeconds(1);
+        private Duration retention;
+        
+        public Builder directory(Path directory) {
+            this.directory = directory;
+            return this;
+        }
+        
+        public Builder segmentSize(long segmentSize) {
+            if (segmentSize < BLOCK_SIZE) {
+                throw new IllegalArgumentException("Segment size must be at least " + BLOCK_SIZE + " bytes.");
+            }
+            this.segmentSize = segmentSize;
+            return this;
+        }
+        
+        public Builder syncInterval(Duration syncInterval) {
+            if (syncInterval.isNegative()) {
+                throw new IllegalArgumentException("Sync interval must not be negative.");
+            }
+            this.syncInterval = syncInterval;
+            return this;
+        }
+        
+        public Builder retention(Duration retention) {
+            this.retention = retention;
+            return this;
+        }
+        
+        public ChangeLog build() {
+            ChangeLog log = new ChangeLog(directory, segmentSize, syncInterval, retention);
+            try {
+                log.load();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return log;
+        }
+    }
+}
@@ -76,30 +76,6 @@ public class Course {
         return subject + " " + code + ": " + name;
     }
     
-    public String toJSON() {
-        return "{\n" +
-                "\t\"subject\": \"" + subject + "\",\n" +
-                "\t\"code\": \"" + code + "\",\n" +
-                "\t\"name\": \"" + name + "\",\n" +
-                "\t\"description\": \"" + description
-                .replace("\\", "\\\\")
-                .replace("\"", "\\\"") + "\",\n" +
-                "\t\"credits\": " + credits + ",\n" +
-                "\t\"url\": \"" + url + "\"\n" +
-                "}";
-    }
-    
-    public String toCSV() {
-        return "\"" + subject + "\"," +
-                "\"" + code + "\"," +
-                "\"" + name + "\"," +
-                "\"" + description
-                .replace("\\", "\\\\")
-                .replace("\"", "\\\"") + "\"," +
-                "\"" + credits + "\"," +
-                "\"" + url + "\"";
-    }
-    
     public static class Builder {
         private String subject;
         private String code;
@@ -0,0 +1,347 @@
+package com.johnturkson.courses;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+public class CourseIndex {
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "are", "as", "at", "be", "by", "for",
+            "from", "in", "into", "is", "it", "its", "of", "on", "or", "the", "this", "to", "with");
+    private static final int NAME_WEIGHT = 3;
+    private static final int FIELD_GAP = 8;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private Course[] courses;
+    private int[] lengths;
+    private int[] nameLengths;
+    private double averageLength;
+    private Map<String, byte[]> postings;
+    private Map<String, Integer> documentFrequencies;
+    
+    private CourseIndex(Course[] courses, int[] lengths, int[] nameLengths, Map<String, byte[]> postings,
+                        Map<String, Integer> documentFrequencies) {
+        this.courses = courses;
+        this.lengths = lengths;
+        this.nameLengths = nameLengths;
+        this.averageLength = Math.max(1, Arrays.stream(lengths).average().orElse(1));
+        this.postings = postings;
+        this.documentFrequencies = documentFrequencies;
+    }
+    
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+    
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+            } else if (token.length() > 0) {
+                String word = token.toString();
+                if (!STOP_WORDS.contains(word)) {
+                    tokens.add(stem(word));
+                }
+                token.setLength(0);
+            }
+        }
+        return tokens;
+    }
+    
+    static String stem(String word) {
+        if (word.length() <= 3 || Character.isDigit(word.charAt(0))) {
+            return word;
+        }
+        
+        if (word.endsWith("ies") && word.length() > 4) {
+            word = word.substring(0, word.length() - 3) + "y";
+        } else if (word.endsWith("sses")) {
+            word = word.substring(0, word.length() - 2);
+        } else if (word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us") && !word.endsWith("is")) {
+            word = word.substring(0, word.length() - 1);
+        }
+        
+        String stem = word;
+        if (word.endsWith("ing") && word.length() > 5) {
+            stem = word.substring(0, word.length() - 3);
+        } else if (word.endsWith("ed") && word.length() > 4) {
+            stem = word.substring(0, word.length() - 2);
+        }
+        if (stem.length() != word.length() && stem.length() > 2) {
+            char last = stem.charAt(stem.length() - 1);
+            if (last == stem.charAt(stem.length() - 2) && "aeioulsz".indexOf(last) < 0) {
+                stem = stem.substring(0, stem.length() - 1);
+            }
+        }
+        return stem;
+    }
+    
+    public List<Result> search(String query, int limit) {
+        List<String> terms = new ArrayList<>();
+        List<List<String>> phrases = new ArrayList<>();
+        String[] parts = query.split("\"", -1);
+        for (int i = 0; i < parts.length; i++) {
+            List<String> tokens = tokenize(parts[i]);
+            terms.addAll(tokens);
+            if (i % 2 == 1 && tokens.size() > 1) {
+                phrases.add(tokens);
+            }
+        }
+        
+        Set<String> distinct = new LinkedHashSet<>(terms);
+        if (distinct.isEmpty() || limit < 1) {
+            return List.of();
+        }
+        
+        double[] scores = new double[courses.length];
+        int[] matches = new int[courses.length];
+        for (String term : distinct) {
+            byte[] data = postings.get(term);
+            if (data == null) {
+                continue;
+            }
+            
+            int frequency = documentFrequencies.get(term);
+            double idf = Math.log(1 + (courses.length - frequency + 0.5) / (frequency + 0.5));
+            PostingReader reader = new PostingReader(data);
+            while (reader.next()) {
+                int document = reader.document;
+                int weighted = 0;
+                for (int j = 0; j < reader.frequency; j++) {
+                    weighted += reader.positions[j] < nameLengths[document] ? NAME_WEIGHT : 1;
+                }
+                double norm = K1 * (1 - B + B * lengths[document] / averageLength);
+                scores[document] += idf * weighted * (K1 + 1) / (weighted + norm);
+                matches[document]++;
+            }
+        }
+        
+        boolean[] excluded = new boolean[courses.length];
+        for (List<String> phrase : phrases) {
+            boolean[] found = matchPhrase(phrase);
+            for (int i = 0; i < courses.length; i++) {
+                excluded[i] |= !found[i];
+            }
+        }
+        
+        PriorityQueue<Result> top = new PriorityQueue<>();
+        for (int i = 0; i < courses.length; i++) {
+            if (matches[i] == 0 || excluded[i]) {
+                continue;
+            }
+            double score = scores[i] * matches[i] / distinct.size();
+            if (top.size() < limit) {
+                top.add(new Result(courses[i], score));
+            } else if (score > top.peek().score) {
+                top.poll();
+                top.add(new Result(courses[i], score));
+            }
+        }
+        
+        List<Result> results = new ArrayList<>(top);
+        results.sort(Collections.reverseOrder());
+        return results;
+    }
+    
+    private boolean[] matchPhrase(List<String> phrase) {
+        boolean[] found = new boolean[courses.length];
+        PostingReader[] readers = new PostingReader[phrase.size()];
+        for (int i = 0; i < readers.length; i++) {
+            byte[] data = postings.get(phrase.get(i));
+            if (data == null) {
+                return found;
+            }
+            readers[i] = new PostingReader(data);
+            if (!readers[i].next()) {
+                return found;
+            }
+        }
+        
+        while (true) {
+            int target = 0;
+            for (PostingReader reader : readers) {
+                target = Math.max(target, reader.document);
+            }
+            
+            boolean aligned = true;
+            for (PostingReader reader : readers) {
+                while (reader.document < target) {
+                    if (!reader.next()) {
+                        return found;
+                    }
+                }
+                aligned &= reader.document == target;
+            }
+            if (!aligned) {
+                continue;
+            }
+            
+            found[target] = containsPhrase(readers);
+            if (!readers[0].next()) {
+                return found;
+            }
+        }
+    }
+    
+    private static boolean containsPhrase(PostingReader[] readers) {
+        for (int i = 0; i < readers[0].frequency; i++) {
+            int start = readers[0].positions[i];
+            boolean matched = true;
+            for (int j = 1; j < readers.length && matched; j++) {
+                matched = Arrays.binarySearch(readers[j].positions, 0, readers[j].frequency, start + j) >= 0;
+            }
+            if (matched) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    public int size() {
+        return courses.length;
+    }
+    
+    public int getTermCount() {
+        return postings.size();
+    }
+    
+    public long getPostingBytes() {
+        return postings.values().stream().mapToLong(p -> p.length).sum();
+    }
+    
+    private static class PostingReader {
+        private ByteBuffer buffer;
+        private int document = -1;
+        private int frequency;
+        private int[] positions = new int[8];
+        
+        private PostingReader(byte[] data) {
+            this.buffer = ByteBuffer.wrap(data);
+        }
+        
+        private boolean next() {
+            if (!buffer.hasRemaining()) {
+                return false;
+            }
+            
+            document += Varints.readInt(buffer) + (document < 0 ? 1 : 0);
+            frequency = Varints.readInt(buffer);
+            if (positions.length < frequency) {
+                positions = new int[Integer.highestOneBit(frequency) << 1];
+            }
+            int position = 0;
+            for (int i = 0; i < frequency; i++) {
+                position += Varints.readInt(buffer);
+                positions[i] = position;
+            }
+            return true;
+        }
+    }
+    
+    public static class Result implements Comparable<Result> {
+        private Course course;
+        private double score;
+        
+        private Result(Course course, double score) {
+            this.course = course;
+            this.score = score;
+        }
+        
+        public Course getCourse() {
+            return course;
+        }
+        
+        public double getScore() {
+            return score;
+        }
+        
+        @Override
+        public int compareTo(Result o) {
+            return Double.compare(score, o.score);
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("%.3f %s", score, course);
+        }
+    }
+    
+    public static class Builder {
+        private Map<String, Course> courses = new LinkedHashMap<>();
+        
+        public Builder courses(List<Course> courses) {
+            courses.forEach(this::add);
+            return this;
+        }
+        
+        public Builder add(Course course) {
+            courses.put(course.getSubject().trim() + " " + course.getCode().trim(), course);
+            return this;
+        }
+        
+        public CourseIndex build() {
+            Course[] documents = courses.values().toArray(new Course[0]);
+            int[] lengths = new int[documents.length];
+            int[] nameLengths = new int[documents.length];
+            Map<String, TermPostings> terms = new HashMap<>();
+            
+            for (int i = 0; i < documents.length; i++) {
+                List<String> name = tokenize(documents[i].getSubject() + " " + documents[i].getCode() + " " +
+                        documents[i].getName());
+                List<String> description = tokenize(documents[i].getDescription() == null ? "" :
+                        documents[i].getDescription());
+                nameLengths[i] = name.size();
+                lengths[i] = name.size() + description.size();
+                
+                Map<String, List<Integer>> positions = new LinkedHashMap<>();
+                for (int j = 0; j < name.size(); j++) {
+                    positions.computeIfAbsent(name.get(j), k -> new ArrayList<>()).add(j);
+                }
+                for (int j = 0; j < description.size(); j++) {
+                    positions.computeIfAbsent(description.get(j), k -> new ArrayList<>())
+                            .add(name.size() + FIELD_GAP + j);
+                }
+                for (Map.Entry<String, List<Integer>> entry : positions.entrySet()) {
+                    terms.computeIfAbsent(entry.getKey(), k -> new TermPostings()).add(i, entry.getValue());
+                }
+            }
+            
+            Map<String, byte[]> postings = new HashMap<>();
+            Map<String, Integer> documentFrequencies = new HashMap<>();
+            terms.forEach((term, termPostings) -> {
+                postings.put(term, termPostings.out.toByteArray());
+                documentFrequencies.put(term, termPostings.documents);
+            });
+            return new CourseIndex(documents, lengths, nameLengths, postings, documentFrequencies);
+        }
+    }
+    
+    private static class TermPostings {
+        private ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private int lastDocument = -1;
+        private int documents;
+        
+        private void add(int document, List<Integer> positions) {
+            Varints.write(out, document - lastDocument - (lastDocument < 0 ? 1 : 0));
+            Varints.write(out, positions.size());
+            int last = 0;
+            for (int position : positions) {
+                Varints.write(out, position - last);
+                last = position;
+            }
+            lastDocument = document;
+            documents++;
+        }
+    }
+}
@@ -1,46 +1,43 @@
 package com.johnturkson.courses;
 
-import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.net.MalformedURLException;
-import java.net.URI;
 import java.net.URL;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class Courses {
+    private static final Pattern COURSE_DETAILS_PATTERN = Pattern.compile("<[^>]*>" +
+            "(?<subject>[^\\s]+)\\s" +
+            "(?<code>[^\\s]+)\\s" +
+            "(?<name>[^<]+)" +
+            "</[^>]*>" +
+            "<p>(?<description>[^<]*)</p>" +
+            ".+?" +
+            "<p>Credits:\\s(?<credits>\\d+)</p>");
+    private static final Pattern COURSE_PATTERN = Pattern.compile("<tr[^>]*>" +
+            "<td><a href=" +
+            "(?<url>[^>]+)>" +
+            "(?<subject>[^\\s]+)\\s" +
+            "(?<code>[^<]+)</a></td>" +
+            "<td>(?<name>[^<]+)</td></a>" +
+            "</tr>");
     public static Optional<Course> getCourse(String subject, String code) {
-        String query = "https://courses.students.ubc.ca/cs/courseschedule?" +
+        Transport transport = Transport.getDefault();
+        String query = transport.getEndpoint() + "/cs/courseschedule?" +
                 "pname=subjarea&" +
                 "tname=subj-course&" +
                 "dept=" + subject.trim() + "&" +
                 "course=" + code.trim();
         
-        String response = HttpClient.newHttpClient()
-                .sendAsync(HttpRequest.newBuilder()
-                        .uri(URI.create(query))
-                        .GET()
-                        .build(), HttpResponse.BodyHandlers.ofString())
-                .join()
-                .body();
+        String response = transport.get(query);
         
-        Pattern courseDetailsPattern = Pattern.compile("<[^>]*>" +
-                "(?<subject>[^\\s]+)\\s" +
-                "(?<code>[^\\s]+)\\s" +
-                "(?<name>[^<]+)" +
-                "</[^>]*>" +
-                "<p>(?<description>[^<]*)</p>" +
-                ".+?" +
-                "<p>Credits:\\s(?<credits>\\d+)</p>");
-        Matcher courseDetailsMatcher = courseDetailsPattern.matcher(response);
+        Matcher courseDetailsMatcher = COURSE_DETAILS_PATTERN.matcher(response);
         
         if (courseDetailsMatcher.find()) {
             try {
@@ -68,27 +65,15 @@ public class Courses {
     }
     
     public static List<Course> getCourses(String subject) {
+        Transport transport = Transport.getDefault();
         Set<Course> courses = new LinkedHashSet<>();
         
-        String response = HttpClient.newHttpClient()
-                .sendAsync(HttpRequest.newBuilder()
-                        .uri(URI.create("https://courses.students.ubc.ca/cs/courseschedule?" +
-                                "pname=subjarea&" +
-                                "tname=subj-department&" +
-                                "dept=" + subject.trim()))
-                        .GET()
-                        .build(), HttpResponse.BodyHandlers.ofString())
-                .join()
-                .body();
+        String response = transport.get("/cs/courseschedule?" +
+                "pname=subjarea&" +
+                "tname=subj-department&" +
+                "dept=" + subject.trim());
         
-        Pattern coursePattern = Pattern.compile("<tr[^>]*>" +
-                "<td><a href=" +
-                "(?<url>[^>]+)>" +
-                "(?<subject>[^\\s]+)\\s" +
-                "(?<code>[^<]+)</a></td>" +
-                "<td>(?<name>[^<]+)</td></a>" +
-                "</tr>");
-        Matcher courseMatcher = coursePattern.matcher(response);
+        Matcher courseMatcher = COURSE_PATTERN.matcher(response);
         
         Map<Course.Builder, CompletableFuture<String>> courseBuilders = new LinkedHashMap<>();
         
@@ -98,34 +83,18 @@ public class Courses {
                         .subject(courseMatcher.group("subject").trim())
                         .code(courseMatcher.group("code").trim())
                         .name(courseMatcher.group("name").trim())
-                        .url(new URL("https://courses.students.ubc.ca" +
-                                courseMatcher.group("url").replace("&amp;", "&")));
-                CompletableFuture<String> remainingDetails = HttpClient.newHttpClient()
-                        .sendAsync(HttpRequest.newBuilder()
-                                .uri(URI.create("https://courses.students.ubc.ca" +
-                                        courseMatcher.group("url")
-                                                .replace("&amp;", "&")))
-                                .GET()
-                                .build(), HttpResponse.BodyHandlers.ofString())
-                        .thenApply(HttpResponse::body);
+                        .url(new URL(transport.resolve(courseMatcher.group("url").replace("&amp;", "&"))));
+                CompletableFuture<String> remainingDetails = transport.fetch(courseMatcher.group("url")
+                        .replace("&amp;", "&"));
                 courseBuilders.put(partialBuilder, remainingDetails);
             } catch (MalformedURLException e) {
                 e.printStackTrace();
             }
         }
         
-        Pattern courseDetailsPattern = Pattern.compile("<[^>]*>" +
-                "(?<subject>[^\\s]+)\\s" +
-                "(?<code>[^\\s]+)\\s" +
-                "(?<name>[^<]+)" +
-                "</[^>]*>" +
-                "<p>(?<description>[^<]*)</p>" +
-                ".+?" +
-                "<p>Credits:\\s(?<credits>\\d+)</p>");
-        
         for (Course.Builder b : courseBuilders.keySet()) {
             String details = courseBuilders.get(b).join();
-            Matcher courseDetailsMatcher = courseDetailsPattern.matcher(details);
+            Matcher courseDetailsMatcher = COURSE_DETAILS_PATTERN.matcher(details);
             if (courseDetailsMatcher.find()) {
                 courses.add(b.description(courseDetailsMatcher.group("description")
                         .trim()
@@ -141,79 +110,117 @@ public class Courses {
         return new ArrayList<>(courses);
     }
     
+    static CompletableFuture<List<String>> getCourseCodes(String subject) {
+        return Transport.getDefault()
+                .fetch("/cs/courseschedule?" +
+                        "pname=subjarea&" +
+                        "tname=subj-department&" +
+                        "dept=" + subject.trim())
+                .thenApply(response -> {
+                    Set<String> codes = new LinkedHashSet<>();
+                    Matcher courseMatcher = COURSE_PATTERN.matcher(response);
+                    while (courseMatcher.find()) {
+                        codes.add(courseMatcher.group("code").trim());
+                    }
+                    return new ArrayList<>(codes);
+                });
+    }
+    
     public static void exportAsJSON(List<Course> courses, Path location) {
-        try {
-            Files.writeString(location, new LinkedHashSet<>(courses).stream()
-                    .map(Course::toJSON)
-                    .map(s -> "\t" + s)
-                    .map(s -> s.replace("\n", "\n\t"))
-                    .collect(Collectors.joining(",\n", "[\n", "\n]")));
-            
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
+        JsonWriter.writeArray(courses, location, Courses::writeJSON);
     }
     
     public static List<Course> importFromJSON(Path location) {
-        try {
-            String json = Files.readString(location);
-            Pattern coursePattern = Pattern.compile("\\{\\s*" +
-                    "\"subject\":\\s*\"(?<subject>[^\"]*)\",\\s*" +
-                    "\"code\":\\s*\"(?<code>[^\"]*)\",\\s*" +
-                    "\"name\":\\s*\"(?<name>[^\"]*)\",\\s*" +
-                    "\"description\":\\s*\"(?<description>.*)\",\\s*" +
-                    "\"credits\":\\s*(?<credits>[^\"]*),\\s*" +
-                    "\"url\":\\s*\"(?<url>[^\"]*)\"\\s*" +
-                    "}");
-            Matcher courseMatcher = coursePattern.matcher(json);
-            return extractCourses(courseMatcher);
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
+        try (Stream<Course> courses = streamFromJSON(location)) {
+            return new ArrayList<>(courses.collect(Collectors.toCollection(LinkedHashSet::new)));
         }
     }
     
-    public static void exportAsCSV(List<Course> courses, Path location) {
-        try {
-            Files.writeString(location, new LinkedHashSet<>(courses).stream()
-                    .map(Course::toCSV)
-                    .collect(Collectors.joining("\n")));
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
+    public static Stream<Course> streamFromJSON(Path location) {
+        return JsonReader.streamArray(location, Courses::readJSON);
+    }
+    
+    static void writeJSON(JsonWriter json, Course course) {
+        json.beginObject()
+                .name("subject", course.getSubject())
+                .name("code", course.getCode())
+                .name("name", course.getName())
+                .name("description", course.getDescription())
+                .name("credits", course.getCredits())
+                .name("url", course.getUrl() == null ? null : course.getUrl().toString())
+                .endObject();
+    }
+    
+    static Course readJSON(JsonReader json) {
+        Course.Builder builder = Course.newBuilder();
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "subject":
+                    builder.subject(json.nextString());
+                    break;
+                case "code":
+                    builder.code(json.nextString());
+                    break;
+                case "name":
+                    builder.name(json.nextString());
+                    break;
+                case "description":
+                    builder.description(json.nextString());
+                    break;
+                case "credits":
+                    builder.credits(json.nextInt());
+                    break;
+                case "url":
+                    try {
+                        builder.url(new URL(json.nextString()));
+                    } catch (MalformedURLException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    break;
+                default:
+                    json.skipValue();
+            }
         }
+        json.endObject();
+        return builder.build();
+    }
+    
+    public static void exportAsCSV(List<Course> courses, Path location) {
+        CsvWriter.writeAll(courses, location, Courses::toRecord);
     }
     
     public static List<Course> importFromCSV(Path location) {
-        try {
-            String json = Files.readString(location);
-            Pattern coursePattern = Pattern.compile("\"(?<subject>[^\"]*)\"," +
-                    "\"(?<code>[^\"]*)\"," +
-                    "\"(?<name>[^\"]*)\"," +
-                    "\"(?<description>.*)\"," +
-                    "\"(?<credits>[^\"]*)\"," +
-                    "\"(?<url>[^\"]*)\"");
-            Matcher courseMatcher = coursePattern.matcher(json);
-            return extractCourses(courseMatcher);
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
+        return new ArrayList<>(new LinkedHashSet<>(CsvReader.readParallel(location, Courses::fromRecord)));
     }
     
-    private static List<Course> extractCourses(Matcher courseMatcher) {
-        Set<Course> courses = new LinkedHashSet<>();
+    public static Stream<Course> streamFromCSV(Path location) {
+        return CsvReader.stream(location, Courses::fromRecord);
+    }
+    
+    static List<String> toRecord(Course course) {
+        return Arrays.asList(course.getSubject(),
+                course.getCode(),
+                course.getName(),
+                course.getDescription(),
+                String.valueOf(course.getCredits()),
+                course.getUrl() == null ? null : course.getUrl().toString());
+    }
+    
+    static Course fromRecord(List<String> record) {
+        if (record.size() != 6) {
+            throw new IllegalArgumentException("Expected 6 fields in a course record but found " + record.size() + ".");
+        }
+        
         try {
-            while (courseMatcher.find()) {
-                courses.add(Course.newBuilder()
-                        .subject(courseMatcher.group("subject"))
-                        .code(courseMatcher.group("code"))
-                        .name(courseMatcher.group("name"))
-                        .description(courseMatcher.group("description")
-                                .replace("\\\\", "\\")
-                                .replace("\\\"", "\""))
-                        .credits(Integer.parseInt(courseMatcher.group("credits")))
-                        .url(new URL(courseMatcher.group("url")))
-                        .build());
-            }
-            return new ArrayList<>(courses);
+            return Course.newBuilder()
+                    .subject(record.get(0))
+                    .code(record.get(1))
+                    .name(record.get(2))
+                    .description(record.get(3))
+                    .credits(Integer.parseInt(record.get(4)))
+                    .url(new URL(record.get(5)))
+                    .build();
         } catch (MalformedURLException e) {
             throw new UncheckedIOException(e);
         }
@@ -0,0 +1,326 @@
+package com.johnturkson.courses;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpResponse;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class Crawler {
+    private static final String SUBJECT_ENTRY = "S";
+    private static final String COURSE_ENTRY = "C";
+    private List<String> subjects;
+    private Path checkpoint;
+    private Path output;
+    private int parallelism;
+    private Map<String, List<String>> knownCourses;
+    private Set<String> completedCourses;
+    private Deque<String> pendingSubjects;
+    private Deque<String[]> pendingCourses;
+    private BufferedWriter journal;
+    private CompletableFuture<Statistics> completion;
+    private int inFlight;
+    private AtomicLong pages;
+    private AtomicLong sections;
+    private long coursesCompleted;
+    private long coursesSkipped;
+    private long failures;
+    private long start;
+    
+    private Crawler(List<String> subjects, Path checkpoint, Path output, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least one unit.");
+        }
+        
+        this.subjects = subjects;
+        this.checkpoint = checkpoint;
+        this.output = output;
+        this.parallelism = parallelism;
+        this.knownCourses = new HashMap<>();
+        this.completedCourses = new HashSet<>();
+        this.pendingSubjects = new ArrayDeque<>();
+        this.pendingCourses = new ArrayDeque<>();
+        this.pages = new AtomicLong();
+        this.sections = new AtomicLong();
+    }
+    
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+    
+    public Statistics crawl() {
+        return start().join();
+    }
+    
+    public synchronized CompletableFuture<Statistics> start() {
+        if (completion != null) {
+            throw new IllegalStateException("Crawl has already been started.");
+        }
+        
+        try {
+            Files.createDirectories(output);
+            readCheckpoint();
+            journal = Files.newBufferedWriter(checkpoint, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        
+        completion = new CompletableFuture<>();
+        start = System.nanoTime();
+        for (String subject : subjects) {
+            if (knownCourses.containsKey(subject)) {
+                queueCourses(subject, knownCourses.get(subject));
+            } else {
+                pendingSubjects.add(subject);
+            }
+        }
+        schedule();
+        return completion;
+    }
+    
+    public synchronized Statistics getStatistics() {
+        return new Statistics(pages.get(), sections.get(), coursesCompleted, coursesSkipped, failures,
+                Duration.ofNanos(start == 0 ? 0 : System.nanoTime() - start));
+    }
+    
+    private void readCheckpoint() throws IOException {
+        if (!Files.exists(checkpoint)) {
+            return;
+        }
+        
+        // A line without its terminator was cut off by an interrupted write, and is dropped so that the next entry
+        // appended to the journal starts on a line of its own
+        byte[] bytes = Files.readAllBytes(checkpoint);
+        int length = bytes.length;
+        while (length > 0 && bytes[length - 1] != '\n') {
+            length--;
+        }
+        if (length < bytes.length) {
+            try (FileChannel channel = FileChannel.open(checkpoint, StandardOpenOption.WRITE)) {
+                channel.truncate(length);
+            }
+        }
+        
+        String contents = new String(bytes, 0, length, StandardCharsets.UTF_8);
+        for (String line : contents.split("\n")) {
+            String[] fields = line.split("\t", -1);
+            if (fields.length == 3 && fields[0].equals(SUBJECT_ENTRY)) {
+                knownCourses.put(fields[1], fields[2].isEmpty() ? List.of() : Arrays.asList(fields[2].split(",")));
+            } else if (fields.length == 3 && fields[0].equals(COURSE_ENTRY)) {
+                completedCourses.add(fields[1] + " " + fields[2]);
+            }
+        }
+    }
+    
+    private void queueCourses(String subject, List<String> courses) {
+        for (String course : courses) {
+            if (completedCourses.contains(subject + " " + course)) {
+                coursesSkipped++;
+            } else {
+                pendingCourses.add(new String[]{subject, course});
+            }
+        }
+    }
+    
+    private void schedule() {
+        while (inFlight < parallelism) {
+            if (!pendingCourses.isEmpty()) {
+                crawlCourse(pendingCourses.poll());
+            } else if (!pendingSubjects.isEmpty()) {
+                crawlSubject(pendingSubjects.poll());
+            } else {
+                break;
+            }
+        }
+        
+        if (inFlight == 0 && pendingCourses.isEmpty() && pendingSubjects.isEmpty() && !completion.isDone()) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                completion.completeExceptionally(e);
+                return;
+            }
+            completion.complete(getStatistics());
+        }
+    }
+    
+    private void crawlSubject(String subject) {
+        inFlight++;
+        CompletableFuture.completedFuture(subject)
+                .thenCompose(Courses::getCourseCodes)
+                .whenComplete((courses, e) -> {
+                    synchronized (this) {
+                        inFlight--;
+                        if (e != null) {
+                            failures++;
+                        } else {
+                            pages.incrementAndGet();
+                            record(SUBJECT_ENTRY, subject, String.join(",", courses));
+                            queueCourses(subject, courses);
+                        }
+                        schedule();
+                    }
+                });
+    }
+    
+    private void crawlCourse(String[] course) {
+        inFlight++;
+        CompletableFuture.completedFuture(course)
+                .thenCompose(c -> Sections.getSectionListings(c[0], c[1]))
+                .thenCompose(listings -> {
+                    pages.incrementAndGet();
+                    List<CompletableFuture<Section>> details = new ArrayList<>();
+                    listings.forEach((partialBuilder, url) -> details.add(Transport.getDefault()
+                            .fetch(url, SectionPageParser.bodyHandler())
+                            .thenApply(HttpResponse::body)
+                            .thenApply(parser -> {
+                                pages.incrementAndGet();
+                                return partialBuilder.schedule(parser.getSchedule())
+                                        .instructor(parser.getInstructor())
+                                        .seats(parser.getSeats())
+                                        .build();
+                            })));
+                    return CompletableFuture.allOf(details.toArray(new CompletableFuture<?>[0]))
+                            .thenApply(v -> {
+                                Set<Section> distinct = new LinkedHashSet<>();
+                                details.forEach(d -> distinct.add(d.join()));
+                                return new ArrayList<>(distinct);
+                            });
+                })
+                .thenAccept(courseSections -> {
+                    Sections.exportAsJSON(courseSections, output.resolve(course[0] + course[1] + ".json"));
+                    sections.addAndGet(courseSections.size());
+                })
+                .whenComplete((v, e) -> {
+                    synchronized (this) {
+                        inFlight--;
+                        if (e != null) {
+                            failures++;
+                        } else {
+                            record(COURSE_ENTRY, course[0], course[1]);
+                            coursesCompleted++;
+                        }
+                        schedule();
+                    }
+                });
+    }
+    
+    private void record(String type, String subject, String value) {
+        try {
+            journal.write(type + "\t" + subject + "\t" + value + "\n");
+            journal.flush();
+        } catch (IOException e) {
+            completion.completeExceptionally(e);
+        }
+    }
+    
+    public static class Statistics {
+        private long pages;
+        private long sections;
+        private long coursesCompleted;
+        private long coursesSkipped;
+        private long failures;
+        private Duration elapsed;
+        
+        private Statistics(long pages, long sections, long coursesCompleted, long coursesSkipped, long failures,
+                           Duration elapsed) {
+            this.pages = pages;
+            this.sections = sections;
+            this.coursesCompleted = coursesCompleted;
+            this.coursesSkipped = coursesSkipped;
+            this.failures = failures;
+            this.elapsed = elapsed;
+        }
+        
+        public long getPages() {
+            return pages;
+        }
+        
+        public long getSections() {
+            return sections;
+        }
+        
+        public long getCoursesCompleted() {
+            return coursesCompleted;
+        }
+        
+        public long getCoursesSkipped() {
+            return coursesSkipped;
+        }
+        
+        public long getFailures() {
+            return failures;
+        }
+        
+        public Duration getElapsed() {
+            return elapsed;
+        }
+        
+        public double getPagesPerSecond() {
+            return elapsed.isZero() ? 0 : pages * 1e9 / elapsed.toNanos();
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("%d pages, %d sections, %d courses crawled, %d resumed, %d failed in %d ms (%.1f pages/s)",
+                    pages, sections, coursesCompleted, coursesSkipped, failures, elapsed.toMillis(),
+                    getPagesPerSecond());
+        }
+    }
+    
+    public static class Builder {
+        private List<String> subjects = new ArrayList<>();
+        private Path checkpoint;
+        private Path output;
+        private int parallelism = 16;
+        
+        public Builder subjects(List<Subject> subjects) {
+            subjects.forEach(s -> this.subjects.add(s.getCode().trim()));
+            return this;
+        }
+        
+        public Builder subject(String subject) {
+            subjects.add(subject.trim());
+            return this;
+        }
+        
+        public Builder checkpoint(Path checkpoint) {
+            this.checkpoint = checkpoint;
+            return this;
+        }
+        
+        public Builder output(Path output) {
+            this.output = output;
+            return this;
+        }
+        
+        public Builder parallelism(int parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+        
+        public Crawler build() {
+            Path output = this.output == null ? Path.of(".") : this.output;
+            return new Crawler(new ArrayList<>(new LinkedHashSet<>(subjects)),
+                    checkpoint == null ? output.resolve("crawl.checkpoint") : checkpoint, output, parallelism);
+        }
+    }
+}
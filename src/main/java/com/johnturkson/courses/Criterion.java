@@ -0,0 +1,117 @@
+package com.johnturkson.courses;
+
+import java.util.List;
+import java.util.function.ToDoubleBiFunction;
+
+public interface Criterion {
+    double cost(List<Section> sections);
+    
+    // A bound must never exceed the cost of any timetable completed from the given sections
+    default double bound(List<Section> sections) {
+        return cost(sections);
+    }
+    
+    default Criterion weighted(double weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight must not be negative.");
+        }
+        
+        Criterion criterion = this;
+        return new Criterion() {
+            @Override
+            public double cost(List<Section> sections) {
+                return weight * criterion.cost(sections);
+            }
+            
+            @Override
+            public double bound(List<Section> sections) {
+                return weight * criterion.bound(sections);
+            }
+        };
+    }
+    
+    static Criterion campusDays() {
+        return sections -> {
+            int days = 0;
+            for (List<Meeting> meetings : Meeting.byDay(sections)) {
+                days += meetings.isEmpty() ? 0 : 1;
+            }
+            return days;
+        };
+    }
+    
+    static Criterion startingBefore(int hour) {
+        return sections -> {
+            int early = 0;
+            for (Section section : sections) {
+                for (Time time : section.getSchedule().keySet()) {
+                    if (time.getStartHour() < hour) {
+                        early += time.getDays().size();
+                    }
+                }
+            }
+            return early;
+        };
+    }
+    
+    // A later section can fill a gap, so partial timetables are bounded by zero
+    static Criterion gaps() {
+        return new Criterion() {
+            @Override
+            public double cost(List<Section> sections) {
+                int minutes = 0;
+                for (List<Meeting> meetings : Meeting.byDay(sections)) {
+                    int end = -1;
+                    for (Meeting meeting : meetings) {
+                        if (end >= 0 && meeting.getStart() > end) {
+                            minutes += meeting.getStart() - end;
+                        }
+                        end = Math.max(end, meeting.getEnd());
+                    }
+                }
+                return minutes / 60.0;
+            }
+            
+            @Override
+            public double bound(List<Section> sections) {
+                return 0;
+            }
+        };
+    }
+    
+    static Criterion fullSections() {
+        return sections -> {
+            int full = 0;
+            for (Section section : sections) {
+                if (section.getSeats() != null && section.getSeats().getTotalSeatsRemaining() <= 0) {
+                    full++;
+                }
+            }
+            return full;
+        };
+    }
+    
+    static Criterion walkingDistance() {
+        return walkingDistance((a, b) -> a.equals(b) ? 0 : 1);
+    }
+    
+    // The distance must satisfy the triangle inequality for partial costs to remain valid bounds
+    static Criterion walkingDistance(ToDoubleBiFunction<String, String> distance) {
+        return sections -> {
+            double total = 0;
+            for (List<Meeting> meetings : Meeting.byDay(sections)) {
+                String previous = null;
+                for (Meeting meeting : meetings) {
+                    if (meeting.getBuilding() == null) {
+                        continue;
+                    }
+                    if (previous != null) {
+                        total += distance.applyAsDouble(previous, meeting.getBuilding());
+                    }
+                    previous = meeting.getBuilding();
+                }
+            }
+            return total;
+        };
+    }
+}
@@ -0,0 +1,278 @@
+package com.johnturkson.courses;
+
+import java.io.CharArrayReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public class CsvReader implements Closeable {
+    private static final int CHUNK_SIZE = 4 << 20;
+    private static final int MIN_CHUNK_SIZE = 64 << 10;
+    private Reader in;
+    private char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private long records;
+    private StringBuilder field = new StringBuilder();
+    
+    public CsvReader(Reader in) {
+        this.in = in;
+    }
+    
+    public static CsvReader open(Path location) {
+        try {
+            return new CsvReader(Files.newBufferedReader(location, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    public static List<String> split(String record) {
+        List<String> fields = new CsvReader(new StringReader(record)).readRecord();
+        return fields == null ? List.of() : fields;
+    }
+    
+    public static <T> Stream<T> stream(Path location, Function<List<String>, T> mapper) {
+        CsvReader csv = open(location);
+        return csv.records().map(mapper).onClose(csv::close);
+    }
+    
+    public static <T> List<T> readParallel(Path location, Function<List<String>, T> mapper) {
+        return readParallel(location, mapper, CHUNK_SIZE);
+    }
+    
+    public static <T> List<T> readParallel(Path location, Function<List<String>, T> mapper, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least one byte.");
+        }
+        
+        // Small chunks only add mappings, and too many of them exhaust the limit on mappings per process
+        int length = Math.max(chunkSize, MIN_CHUNK_SIZE);
+        try (FileChannel channel = FileChannel.open(location, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int count = (int) Math.max(1, (size + length - 1) / length);
+            Chunk[] chunks = IntStream.range(0, count)
+                    .parallel()
+                    .mapToObj(i -> scan(map(channel, (long) i * length, Math.min(size, (long) (i + 1) * length))))
+                    .toArray(Chunk[]::new);
+            
+            List<Long> starts = new ArrayList<>();
+            starts.add(0L);
+            boolean quoted = chunks[0].odd;
+            for (int i = 1; i < count; i++) {
+                long boundary = quoted ? chunks[i].oddNewline : chunks[i].evenNewline;
+                if (boundary >= 0) {
+                    starts.add((long) i * length + boundary + 1);
+                }
+                quoted ^= chunks[i].odd;
+            }
+            starts.add(size);
+            
+            return IntStream.range(0, starts.size() - 1)
+                    .parallel()
+                    .mapToObj(i -> parse(chunks, length, starts.get(i), starts.get(i + 1)))
+                    .flatMap(List::stream)
+                    .map(mapper)
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private static Chunk scan(MappedByteBuffer bytes) {
+        Chunk chunk = new Chunk(bytes);
+        boolean odd = false;
+        for (int i = 0; i < bytes.limit(); i++) {
+            byte b = bytes.get(i);
+            if (b == '"') {
+                odd = !odd;
+            } else if (b == '\n') {
+                if (odd && chunk.oddNewline < 0) {
+                    chunk.oddNewline = i;
+                } else if (!odd && chunk.evenNewline < 0) {
+                    chunk.evenNewline = i;
+                }
+            }
+        }
+        chunk.odd = odd;
+        return chunk;
+    }
+    
+    private static List<List<String>> parse(Chunk[] chunks, int length, long start, long end) {
+        if (start == end) {
+            return List.of();
+        }
+        
+        // Records usually run past the end of their chunk, in which case the pieces are copied together
+        int first = (int) (start / length);
+        int last = (int) ((end - 1) / length);
+        ByteBuffer bytes;
+        if (first == last) {
+            bytes = slice(chunks[first].bytes, start - (long) first * length, end - (long) first * length);
+        } else {
+            bytes = ByteBuffer.allocate((int) (end - start));
+            for (int i = first; i <= last; i++) {
+                long offset = (long) i * length;
+                long from = Math.max(start, offset) - offset;
+                long to = Math.min(end, offset + length) - offset;
+                bytes.put(slice(chunks[i].bytes, from, to));
+            }
+            bytes.flip();
+        }
+        
+        CharBuffer chars = StandardCharsets.UTF_8.decode(bytes);
+        CsvReader csv = new CsvReader(new CharArrayReader(chars.array(), chars.arrayOffset(), chars.limit()));
+        List<List<String>> records = new ArrayList<>();
+        for (List<String> record = csv.readRecord(); record != null; record = csv.readRecord()) {
+            records.add(record);
+        }
+        return records;
+    }
+    
+    private static ByteBuffer slice(ByteBuffer bytes, long from, long to) {
+        ByteBuffer slice = bytes.duplicate();
+        slice.position((int) from).limit((int) to);
+        return slice.slice();
+    }
+    
+    private static MappedByteBuffer map(FileChannel channel, long start, long end) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    public List<String> readRecord() {
+        while (fill() && (buffer[position] == '\r' || buffer[position] == '\n')) {
+            position++;
+        }
+        if (!fill()) {
+            return null;
+        }
+        
+        records++;
+        List<String> fields = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean closed = false;
+        while (fill()) {
+            char c = buffer[position++];
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (!fill()) {
+                    quoted = false;
+                    closed = true;
+                } else if (buffer[position] == '"') {
+                    field.append('"');
+                    position++;
+                } else if (buffer[position] == ',' || buffer[position] == '\r' || buffer[position] == '\n') {
+                    quoted = false;
+                    closed = true;
+                } else {
+                    field.append('"');
+                }
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                closed = false;
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r' && fill() && buffer[position] == '\n') {
+                    position++;
+                }
+                break;
+            } else if (c == '"' && field.length() == 0 && !closed) {
+                quoted = true;
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field in record " + records + ".");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+    
+    public Stream<List<String>> records() {
+        Iterator<List<String>> iterator = new Iterator<>() {
+            private List<String> next;
+            
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    next = readRecord();
+                }
+                return next != null;
+            }
+            
+            @Override
+            public List<String> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                List<String> record = next;
+                next = null;
+                return record;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+    
+    @Override
+    public void close() {
+        try {
+            in.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private boolean fill() {
+        if (position < limit) {
+            return true;
+        }
+        
+        try {
+            position = 0;
+            limit = Math.max(in.read(buffer), 0);
+            return limit > 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private static class Chunk {
+        private MappedByteBuffer bytes;
+        private boolean odd;
+        private int evenNewline = -1;
+        private int oddNewline = -1;
+        
+        private Chunk(MappedByteBuffer bytes) {
+            this.bytes = bytes;
+        }
+    }
+}
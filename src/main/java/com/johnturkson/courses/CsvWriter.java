@@ -0,0 +1,108 @@
+package com.johnturkson.courses;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Function;
+
+public class CsvWriter implements Closeable, Flushable {
+    private static final String RECORD_SEPARATOR = "\r\n";
+    private Writer out;
+    
+    public CsvWriter(Writer out) {
+        this.out = out;
+    }
+    
+    public static CsvWriter open(Path location) {
+        try {
+            return new CsvWriter(Files.newBufferedWriter(location, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    public static <T> void writeAll(List<T> elements, Path location, Function<T, List<String>> record) {
+        try (CsvWriter csv = open(location)) {
+            for (T element : new LinkedHashSet<>(elements)) {
+                csv.writeRecord(record.apply(element));
+            }
+        }
+    }
+    
+    public static String join(List<String> fields) {
+        StringBuilder record = new StringBuilder();
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) {
+                record.append(',');
+            }
+            String field = fields.get(i) == null ? "" : fields.get(i);
+            if (needsQuotes(field)) {
+                quote(record, field);
+            } else {
+                record.append(field);
+            }
+        }
+        return record.toString();
+    }
+    
+    public CsvWriter writeRecord(List<String> fields) {
+        StringBuilder record = new StringBuilder();
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) {
+                record.append(',');
+            }
+            quote(record, fields.get(i) == null ? "" : fields.get(i));
+        }
+        try {
+            out.append(record).append(RECORD_SEPARATOR);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return this;
+    }
+    
+    @Override
+    public void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @Override
+    public void close() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private static boolean needsQuotes(String field) {
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+                return true;
+            }
+        }
+        return field.isEmpty();
+    }
+    
+    private static void quote(StringBuilder record, String field) {
+        record.append('"');
+        int start = 0;
+        for (int i = field.indexOf('"'); i >= 0; i = field.indexOf('"', i + 1)) {
+            record.append(field, start, i + 1).append('"');
+            start = i + 1;
+        }
+        record.append(field, start, field.length()).append('"');
+    }
+}
@@ -0,0 +1,46 @@
+package com.johnturkson.courses;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+public enum ExecutionMode {
+    PLATFORM("Platform"),
+    VIRTUAL("Virtual");
+    
+    private String name;
+    
+    ExecutionMode(String name) {
+        this.name = name;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public boolean isSupported() {
+        return this == PLATFORM || VirtualThreads.executor != null;
+    }
+    
+    public ExecutorService getExecutor() {
+        if (this == PLATFORM) {
+            return ForkJoinPool.commonPool();
+        }
+        if (VirtualThreads.executor == null) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or later.");
+        }
+        return VirtualThreads.executor;
+    }
+    
+    private static class VirtualThreads {
+        private static final ExecutorService executor = create();
+        
+        private static ExecutorService create() {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.johnturkson.courses;
+
+public class HtmlTokenizer {
+    private static final int TEXT = 0;
+    private static final int TAG = 1;
+    private static final int RAW_TEXT = 2;
+    private Handler handler;
+    private Tag tag;
+    private int state;
+    private char quote;
+    private String rawTextEnd;
+    private int rawTextMatched;
+    
+    public HtmlTokenizer(Handler handler) {
+        this.handler = handler;
+        this.tag = new Tag();
+        this.state = TEXT;
+    }
+    
+    public void feed(CharSequence text) {
+        char[] buffer = new char[Math.min(text.length(), 8192)];
+        String string = text.toString();
+        for (int start = 0; start < string.length(); start += buffer.length) {
+            int end = Math.min(string.length(), start + buffer.length);
+            string.getChars(start, end, buffer, 0);
+            feed(buffer, 0, end - start);
+        }
+    }
+    
+    public void feed(char[] buffer, int offset, int length) {
+        int i = offset;
+        int end = offset + length;
+        while (i < end) {
+            if (state == TEXT) {
+                int textStart = i;
+                while (i < end && buffer[i] != '<') {
+                    i++;
+                }
+                if (i > textStart) {
+                    handler.text(buffer, textStart, i - textStart);
+                }
+                if (i < end) {
+                    state = TAG;
+                    quote = 0;
+                    tag.clear();
+                    i++;
+                }
+            } else if (state == RAW_TEXT) {
+                char c = buffer[i++];
+                if (Character.toLowerCase(c) == rawTextEnd.charAt(rawTextMatched)) {
+                    rawTextMatched++;
+                } else {
+                    rawTextMatched = c == '<' ? 1 : 0;
+                }
+                if (rawTextMatched == rawTextEnd.length()) {
+                    state = TAG;
+                    quote = 0;
+                    tag.clear();
+                    tag.buffer.append(rawTextEnd, 1, rawTextEnd.length());
+                }
+            } else if (quote != 0) {
+                int valueStart = i;
+                while (i < end && buffer[i] != quote) {
+                    i++;
+                }
+                if (i < end) {
+                    quote = 0;
+                    i++;
+                }
+                tag.buffer.append(buffer, valueStart, i - valueStart);
+            } else {
+                int tagStart = i;
+                while (i < end && buffer[i] != '>' && buffer[i] != '"' && buffer[i] != '\'') {
+                    i++;
+                }
+                tag.buffer.append(buffer, tagStart, i - tagStart);
+                if (i == end) {
+                    break;
+                }
+                
+                char c = buffer[i++];
+                if (c == '>' && !(tag.isComment() && !tag.endsWith("--"))) {
+                    state = TEXT;
+                    emitTag();
+                } else {
+                    if ((c == '"' || c == '\'') && tag.endsWith("=")) {
+                        quote = c;
+                    }
+                    tag.buffer.append(c);
+                }
+            }
+        }
+    }
+    
+    private void emitTag() {
+        StringBuilder buffer = tag.buffer;
+        if (buffer.length() == 0 || buffer.charAt(0) == '!' || buffer.charAt(0) == '?') {
+            return;
+        }
+        
+        boolean closing = buffer.charAt(0) == '/';
+        tag.nameStart = closing ? 1 : 0;
+        tag.nameEnd = tag.nameStart;
+        while (tag.nameEnd < buffer.length() &&
+                !Character.isWhitespace(buffer.charAt(tag.nameEnd)) &&
+                buffer.charAt(tag.nameEnd) != '/') {
+            tag.nameEnd++;
+        }
+        
+        if (closing) {
+            handler.endTag(tag);
+        } else {
+            handler.startTag(tag);
+            if (tag.is("script") || tag.is("style")) {
+                state = RAW_TEXT;
+                rawTextEnd = tag.is("script") ? "</script" : "</style";
+                rawTextMatched = 0;
+            }
+        }
+    }
+    
+    public interface Handler {
+        void startTag(Tag tag);
+        
+        void endTag(Tag tag);
+        
+        void text(char[] buffer, int offset, int length);
+    }
+    
+    public static class Tag {
+        private StringBuilder buffer;
+        private int nameStart;
+        private int nameEnd;
+        
+        private Tag() {
+            this.buffer = new StringBuilder();
+        }
+        
+        private void clear() {
+            buffer.setLength(0);
+            nameStart = 0;
+            nameEnd = 0;
+        }
+        
+        private boolean isComment() {
+            return buffer.length() >= 3 && buffer.charAt(0) == '!' && buffer.charAt(1) == '-' && buffer.charAt(2) == '-';
+        }
+        
+        private boolean endsWith(String suffix) {
+            int start = buffer.length() - suffix.length();
+            if (start < (isComment() ? 3 : 0)) {
+                return false;
+            }
+            for (int i = 0; i < suffix.length(); i++) {
+                if (buffer.charAt(start + i) != suffix.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        public boolean is(String name) {
+            if (nameEnd - nameStart != name.length()) {
+                return false;
+            }
+            for (int i = 0; i < name.length(); i++) {
+                if (Character.toLowerCase(buffer.charAt(nameStart + i)) != name.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        public String getName() {
+            return buffer.substring(nameStart, nameEnd).toLowerCase();
+        }
+        
+        public String getAttribute(String name) {
+            int i = nameEnd;
+            while (i < buffer.length()) {
+                while (i < buffer.length() && (Character.isWhitespace(buffer.charAt(i)) || buffer.charAt(i) == '/')) {
+                    i++;
+                }
+                int keyStart = i;
+                while (i < buffer.length() && buffer.charAt(i) != '=' && !Character.isWhitespace(buffer.charAt(i))) {
+                    i++;
+                }
+                int keyEnd = i;
+                String value = null;
+                if (i < buffer.length() && buffer.charAt(i) == '=') {
+                    i++;
+                    int valueStart;
+                    int valueEnd;
+                    if (i < buffer.length() && (buffer.charAt(i) == '"' || buffer.charAt(i) == '\'')) {
+                        char quote = buffer.charAt(i);
+                        valueStart = ++i;
+                        while (i < buffer.length() && buffer.charAt(i) != quote) {
+                            i++;
+                        }
+                        valueEnd = i++;
+                    } else {
+                        valueStart = i;
+                        while (i < buffer.length() && !Character.isWhitespace(buffer.charAt(i))) {
+                            i++;
+                        }
+                        valueEnd = i;
+                    }
+                    value = buffer.substring(valueStart, Math.min(valueEnd, buffer.length()));
+                }
+                if (keyEnd - keyStart == name.length() && buffer.substring(keyStart, keyEnd).equalsIgnoreCase(name)) {
+                    return value == null ? "" : value;
+                }
+                if (keyEnd == keyStart && value == null) {
+                    i++;
+                }
+            }
+            return null;
+        }
+        
+        @Override
+        public String toString() {
+            return "<" + buffer + ">";
+        }
+    }
+}
@@ -1,23 +1,31 @@
 package com.johnturkson.courses;
 
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public class InformationRetriever {
+    private static final Pattern SUBJECT_PATTERN = Pattern.compile("<tr[^>]*>" +
+            "<td><a href=" +
+            "(?<url>[^>]+)>" +
+            "(?<code>[^<]+)" +
+            "</a></td>" +
+            "<td[^>]*>(?<name>[^<]+)</td>" +
+            "<td[^>]*>(?<faculty>[^<]+)</td>" +
+            "</tr>");
+    
     private String endpoint;
     private int year;
     private Session session;
+    private Transport transport;
+    private Catalog catalog;
     
-    private InformationRetriever(String endpoint, int year, Session session) {
+    private InformationRetriever(String endpoint, int year, Session session, Transport transport) {
         this.endpoint = endpoint;
         this.year = year;
         this.session = session;
+        this.transport = transport;
     }
     
     public static Builder newBuilder() {
@@ -25,49 +33,39 @@ public class InformationRetriever {
     }
     
     public Optional<Subject> getSubjectByCode(String code) {
-        return getSubjects().stream()
-                .filter(s -> s.getCode().trim().equals(code.trim()))
-                .findFirst();
+        return getCatalog().getSubject(code);
     }
     
     public Optional<Subject> getSubjectByName(String name) {
-        return getSubjects().stream()
-                .filter(s -> s.getName().trim().equals(name.trim()))
-                .findFirst();
+        return getCatalog().getSubjectByName(name);
+    }
+    
+    public synchronized Catalog getCatalog() {
+        if (catalog == null) {
+            catalog = Catalog.newBuilder()
+                    .subjects(getSubjects())
+                    .build();
+        }
+        return catalog;
     }
     
     public List<Subject> getSubjects() {
         List<Subject> subjects = new ArrayList<>();
-        String response = HttpClient.newBuilder().build()
-                .sendAsync(HttpRequest.newBuilder()
-                        .uri(URI.create(endpoint + "/cs/courseschedule?" +
-                                "sessyr=" + year + "&" +
-                                "sesscd=" + session.abbreviated() + "&" +
-                                "pname=subjarea&" +
-                                "tname=subj-all-departments"))
-                        .GET()
-                        .build(), HttpResponse.BodyHandlers.ofString())
-                .join()
-                .body();
+        String response = transport.get(endpoint + "/cs/courseschedule?" +
+                "sessyr=" + year + "&" +
+                "sesscd=" + session.abbreviated() + "&" +
+                "pname=subjarea&" +
+                "tname=subj-all-departments");
         
-        Pattern subjectPattern = Pattern.compile("<tr[^>]*>" +
-                "<td><a href=" +
-                "(?<url>[^>]+)>" +
-                "(?<code>[^<]+)" +
-                "</a></td>" +
-                "<td[^>]*>(?<name>[^<]+)</td>" +
-                "<td[^>]*>(?<faculty>[^<]+)</td>" +
-                "</tr>");
-        Matcher subjectMatcher = subjectPattern.matcher(response);
+        Matcher subjectMatcher = SUBJECT_PATTERN.matcher(response);
         
         while (subjectMatcher.find()) {
             subjects.add(Subject.newBuilder()
                     .code(subjectMatcher.group("code").trim())
                     .name(subjectMatcher.group("name").trim())
                     .faculty(subjectMatcher.group("faculty").trim())
-                    .url("https://courses.students.ubc.ca" +
-                            subjectMatcher.group("url")
-                                    .replace("&amp;", "&"))
+                    .url(endpoint + subjectMatcher.group("url")
+                            .replace("&amp;", "&"))
                     .build());
         }
         
@@ -82,10 +80,15 @@ public class InformationRetriever {
         return session;
     }
     
+    public Transport getTransport() {
+        return transport;
+    }
+    
     public static class Builder {
         private String endpoint;
         private int year;
         private Session session;
+        private Transport transport;
         
         public Builder endpoint(String endpoint) {
             this.endpoint = endpoint;
@@ -102,8 +105,15 @@ public class InformationRetriever {
             return this;
         }
         
+        public Builder transport(Transport transport) {
+            this.transport = transport;
+            return this;
+        }
+        
         public InformationRetriever build() {
-            return new InformationRetriever(endpoint, year, session);
+            Transport transport = Objects.requireNonNullElseGet(this.transport, Transport::getDefault);
+            return new InformationRetriever(Objects.requireNonNullElse(endpoint, transport.getEndpoint()),
+                    year, session, transport);
         }
     }
 }
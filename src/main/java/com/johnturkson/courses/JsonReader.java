@@ -0,0 +1,446 @@
+package com.johnturkson.courses;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public class JsonReader implements Closeable {
+    private static final int EMPTY_ARRAY = 0;
+    private static final int ARRAY = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int OBJECT = 3;
+    private static final int NAME = 4;
+    private static final int EMPTY_DOCUMENT = 5;
+    private static final int DOCUMENT = 6;
+    private Reader in;
+    private char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private long offset;
+    private int line = 1;
+    private long lineStart;
+    private int[] stack = new int[16];
+    private int depth;
+    private Token peeked;
+    private String peekedValue;
+    private StringBuilder scratch = new StringBuilder();
+    
+    public JsonReader(Reader in) {
+        this.in = in;
+        this.stack[depth++] = EMPTY_DOCUMENT;
+    }
+    
+    public static JsonReader open(Path location) {
+        try {
+            return new JsonReader(Files.newBufferedReader(location, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    public static <T> Stream<T> streamArray(Path location, Function<JsonReader, T> reader) {
+        JsonReader json = open(location);
+        try {
+            json.beginArray();
+        } catch (RuntimeException e) {
+            json.close();
+            throw e;
+        }
+        
+        Iterator<T> elements = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                if (json.depth == 1) {
+                    return false;
+                }
+                if (json.hasNext()) {
+                    return true;
+                }
+                json.endArray();
+                return false;
+            }
+            
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return reader.apply(json);
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(elements,
+                Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(json::close);
+    }
+    
+    public Token peek() {
+        if (peeked != null) {
+            return peeked;
+        }
+        
+        int c;
+        switch (stack[depth - 1]) {
+            case EMPTY_ARRAY:
+                stack[depth - 1] = ARRAY;
+                c = nextNonWhitespace();
+                if (c == ']') {
+                    return peeked = Token.END_ARRAY;
+                }
+                return peeked = readValue(c);
+            case ARRAY:
+                c = nextNonWhitespace();
+                if (c == ']') {
+                    return peeked = Token.END_ARRAY;
+                } else if (c != ',') {
+                    throw syntaxError("Expected ',' or ']' in array");
+                }
+                return peeked = readValue(nextNonWhitespace());
+            case EMPTY_OBJECT:
+            case OBJECT:
+                c = nextNonWhitespace();
+                if (c == '}') {
+                    return peeked = Token.END_OBJECT;
+                } else if (stack[depth - 1] == OBJECT) {
+                    if (c != ',') {
+                        throw syntaxError("Expected ',' or '}' in object");
+                    }
+                    c = nextNonWhitespace();
+                }
+                if (c != '"') {
+                    throw syntaxError("Expected a quoted name in object");
+                }
+                stack[depth - 1] = NAME;
+                return peeked = Token.NAME;
+            case NAME:
+                if (nextNonWhitespace() != ':') {
+                    throw syntaxError("Expected ':' after name");
+                }
+                stack[depth - 1] = OBJECT;
+                return peeked = readValue(nextNonWhitespace());
+            case EMPTY_DOCUMENT:
+                stack[depth - 1] = DOCUMENT;
+                return peeked = readValue(nextNonWhitespace());
+            default:
+                if (nextNonWhitespace() != -1) {
+                    throw syntaxError("Expected end of document");
+                }
+                return peeked = Token.END_DOCUMENT;
+        }
+    }
+    
+    public boolean hasNext() {
+        Token token = peek();
+        return token != Token.END_ARRAY && token != Token.END_OBJECT && token != Token.END_DOCUMENT;
+    }
+    
+    public void beginArray() {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+    
+    public void endArray() {
+        expect(Token.END_ARRAY);
+        depth--;
+    }
+    
+    public void beginObject() {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+    
+    public void endObject() {
+        expect(Token.END_OBJECT);
+        depth--;
+    }
+    
+    public String nextName() {
+        expect(Token.NAME);
+        return readString();
+    }
+    
+    public String nextString() {
+        Token token = peek();
+        if (token == Token.NUMBER) {
+            peeked = null;
+            return peekedValue;
+        }
+        expect(Token.STRING);
+        return readString();
+    }
+    
+    public long nextLong() {
+        expect(Token.NUMBER);
+        try {
+            return Long.parseLong(peekedValue);
+        } catch (NumberFormatException e) {
+            double value = parseDouble(peekedValue);
+            if (value != Math.rint(value) || Math.abs(value) >= 0x1p63) {
+                throw syntaxError("Expected an integer but was " + peekedValue);
+            }
+            return (long) value;
+        }
+    }
+    
+    public int nextInt() {
+        long value = nextLong();
+        if (value != (int) value) {
+            throw syntaxError("Expected an int but was " + value);
+        }
+        return (int) value;
+    }
+    
+    public double nextDouble() {
+        expect(Token.NUMBER);
+        return parseDouble(peekedValue);
+    }
+    
+    public boolean nextBoolean() {
+        expect(Token.BOOLEAN);
+        return peekedValue.equals("true");
+    }
+    
+    public void nextNull() {
+        expect(Token.NULL);
+    }
+    
+    public void skipValue() {
+        int nesting = 0;
+        do {
+            Token token = peek();
+            switch (token) {
+                case BEGIN_ARRAY:
+                    beginArray();
+                    nesting++;
+                    break;
+                case BEGIN_OBJECT:
+                    beginObject();
+                    nesting++;
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    nesting--;
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    nesting--;
+                    break;
+                case NAME:
+                case STRING:
+                    skipString();
+                    peeked = null;
+                    break;
+                case END_DOCUMENT:
+                    throw syntaxError("Expected a value");
+                default:
+                    peeked = null;
+            }
+        } while (nesting > 0);
+    }
+    
+    @Override
+    public void close() {
+        try {
+            in.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private void expect(Token expected) {
+        Token token = peek();
+        if (token != expected) {
+            throw syntaxError("Expected " + expected + " but was " + token);
+        }
+        peeked = null;
+    }
+    
+    private void push(int state) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = state;
+    }
+    
+    private Token readValue(int c) {
+        switch (c) {
+            case '[':
+                return Token.BEGIN_ARRAY;
+            case '{':
+                return Token.BEGIN_OBJECT;
+            case '"':
+                return Token.STRING;
+            case -1:
+                throw syntaxError("Unexpected end of document");
+        }
+        
+        scratch.setLength(0);
+        scratch.append((char) c);
+        while (fill() && isLiteral(buffer[position])) {
+            scratch.append(buffer[position++]);
+        }
+        peekedValue = scratch.toString();
+        switch (peekedValue) {
+            case "true":
+            case "false":
+                return Token.BOOLEAN;
+            case "null":
+                return Token.NULL;
+        }
+        if (c == '-' || (c >= '0' && c <= '9')) {
+            return Token.NUMBER;
+        }
+        throw syntaxError("Unexpected value '" + peekedValue + "'");
+    }
+    
+    private static boolean isLiteral(char c) {
+        return c >= '0' && c <= '9' || c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '-' || c == '+' ||
+                c == '.';
+    }
+    
+    private double parseDouble(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw syntaxError("Malformed number " + value);
+        }
+    }
+    
+    private String readString() {
+        scratch.setLength(0);
+        while (fill()) {
+            int start = position;
+            while (position < limit) {
+                char c = buffer[position];
+                if (c == '"' || c == '\\') {
+                    break;
+                } else if (c < 0x20) {
+                    throw syntaxError("Unescaped control character in string");
+                }
+                position++;
+            }
+            scratch.append(buffer, start, position - start);
+            if (position == limit) {
+                continue;
+            }
+            
+            if (buffer[position++] == '"') {
+                return scratch.toString();
+            }
+            scratch.append(readEscape());
+        }
+        throw syntaxError("Unterminated string");
+    }
+    
+    private void skipString() {
+        while (true) {
+            if (!fill()) {
+                throw syntaxError("Unterminated string");
+            }
+            char c = buffer[position++];
+            if (c == '"') {
+                return;
+            } else if (c == '\\') {
+                readEscape();
+            }
+        }
+    }
+    
+    private char readEscape() {
+        if (!fill()) {
+            throw syntaxError("Unterminated escape sequence");
+        }
+        
+        char c = buffer[position++];
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    if (!fill()) {
+                        throw syntaxError("Unterminated escape sequence");
+                    }
+                    int digit = Character.digit(buffer[position++], 16);
+                    if (digit < 0) {
+                        throw syntaxError("Malformed unicode escape");
+                    }
+                    value = value << 4 | digit;
+                }
+                return (char) value;
+            default:
+                throw syntaxError("Invalid escape sequence '\\" + c + "'");
+        }
+    }
+    
+    private int nextNonWhitespace() {
+        while (fill()) {
+            char c = buffer[position++];
+            if (c == '\n') {
+                line++;
+                lineStart = offset + position;
+            } else if (c != ' ' && c != '\t' && c != '\r') {
+                return c;
+            }
+        }
+        return -1;
+    }
+    
+    private boolean fill() {
+        if (position < limit) {
+            return true;
+        }
+        
+        try {
+            offset += limit;
+            position = 0;
+            limit = 0;
+            int read = in.read(buffer);
+            limit = Math.max(read, 0);
+            return read > 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private IllegalArgumentException syntaxError(String message) {
+        return new IllegalArgumentException(message + " at line " + line + ", column " +
+                (offset + position - lineStart) + ".");
+    }
+    
+    public enum Token {
+        BEGIN_ARRAY,
+        END_ARRAY,
+        BEGIN_OBJECT,
+        END_OBJECT,
+        NAME,
+        STRING,
+        NUMBER,
+        BOOLEAN,
+        NULL,
+        END_DOCUMENT
+    }
+}
@@ -0,0 +1,265 @@
+package com.johnturkson.courses;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+public class JsonWriter implements Closeable, Flushable {
+    private static final int EMPTY_ARRAY = 0;
+    private static final int ARRAY = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int OBJECT = 3;
+    private static final int NAME = 4;
+    private static final int DOCUMENT = 5;
+    private Writer out;
+    private String indent;
+    private int[] stack = new int[16];
+    private int depth;
+    
+    public JsonWriter(Writer out) {
+        this(out, "\t");
+    }
+    
+    public JsonWriter(Writer out, String indent) {
+        this.out = out;
+        this.indent = indent;
+        this.stack[depth++] = DOCUMENT;
+    }
+    
+    public static JsonWriter open(Path location) {
+        try {
+            return new JsonWriter(Files.newBufferedWriter(location, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    public static <T> void writeArray(List<T> elements, Path location, BiConsumer<JsonWriter, T> writer) {
+        try (JsonWriter json = open(location)) {
+            json.beginArray();
+            for (T element : new LinkedHashSet<>(elements)) {
+                writer.accept(json, element);
+            }
+            json.endArray();
+        }
+    }
+    
+    public JsonWriter beginArray() {
+        return open(EMPTY_ARRAY, '[');
+    }
+    
+    public JsonWriter endArray() {
+        return close(EMPTY_ARRAY, ARRAY, ']');
+    }
+    
+    public JsonWriter beginObject() {
+        return open(EMPTY_OBJECT, '{');
+    }
+    
+    public JsonWriter endObject() {
+        return close(EMPTY_OBJECT, OBJECT, '}');
+    }
+    
+    public JsonWriter name(String name) {
+        int state = stack[depth - 1];
+        if (state != EMPTY_OBJECT && state != OBJECT) {
+            throw new IllegalStateException("A name can only be written inside an object.");
+        }
+        
+        separate(state == OBJECT);
+        stack[depth - 1] = OBJECT;
+        push(NAME);
+        string(name);
+        write(": ");
+        return this;
+    }
+    
+    public JsonWriter name(String name, String value) {
+        return name(name).value(value);
+    }
+    
+    public JsonWriter name(String name, long value) {
+        return name(name).value(value);
+    }
+    
+    public JsonWriter value(String value) {
+        if (value == null) {
+            return nullValue();
+        }
+        beforeValue();
+        string(value);
+        return this;
+    }
+    
+    public JsonWriter value(long value) {
+        beforeValue();
+        write(Long.toString(value));
+        return this;
+    }
+    
+    public JsonWriter value(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("JSON numbers must be finite, got " + value + ".");
+        }
+        beforeValue();
+        write(Double.toString(value));
+        return this;
+    }
+    
+    public JsonWriter value(boolean value) {
+        beforeValue();
+        write(value ? "true" : "false");
+        return this;
+    }
+    
+    public JsonWriter nullValue() {
+        beforeValue();
+        write("null");
+        return this;
+    }
+    
+    @Override
+    public void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @Override
+    public void close() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (depth > 1) {
+            throw new IllegalStateException("Closed an incomplete JSON document.");
+        }
+    }
+    
+    private JsonWriter open(int state, char bracket) {
+        beforeValue();
+        push(state);
+        write(bracket);
+        return this;
+    }
+    
+    private JsonWriter close(int empty, int nonempty, char bracket) {
+        int state = stack[depth - 1];
+        if (state != empty && state != nonempty) {
+            throw new IllegalStateException("Mismatched '" + bracket + "' in JSON document.");
+        }
+        
+        depth--;
+        if (state == nonempty) {
+            newline();
+        }
+        write(bracket);
+        return this;
+    }
+    
+    private void beforeValue() {
+        int state = stack[depth - 1];
+        switch (state) {
+            case DOCUMENT:
+                stack[depth - 1] = -1;
+                break;
+            case NAME:
+                depth--;
+                break;
+            case EMPTY_ARRAY:
+            case ARRAY:
+                separate(state == ARRAY);
+                stack[depth - 1] = ARRAY;
+                break;
+            default:
+                throw new IllegalStateException(state == -1 ?
+                        "A JSON document can only have one top-level value." :
+                        "Values inside an object must be preceded by a name.");
+        }
+    }
+    
+    private void separate(boolean comma) {
+        if (comma) {
+            write(',');
+        }
+        newline();
+    }
+    
+    private void newline() {
+        if (indent.isEmpty()) {
+            return;
+        }
+        write('\n');
+        for (int i = 1; i < depth; i++) {
+            write(indent);
+        }
+    }
+    
+    private void push(int state) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = state;
+    }
+    
+    private void string(String value) {
+        try {
+            out.write('"');
+            int start = 0;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                String escape;
+                if (c == '"') {
+                    escape = "\\\"";
+                } else if (c == '\\') {
+                    escape = "\\\\";
+                } else if (c == '\n') {
+                    escape = "\\n";
+                } else if (c == '\r') {
+                    escape = "\\r";
+                } else if (c == '\t') {
+                    escape = "\\t";
+                } else if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                    escape = String.format("\\u%04x", (int) c);
+                } else {
+                    continue;
+                }
+                out.write(value, start, i - start);
+                out.write(escape);
+                start = i + 1;
+            }
+            out.write(value, start, value.length() - start);
+            out.write('"');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private void write(String value) {
+        try {
+            out.write(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private void write(char value) {
+        try {
+            out.write(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -2,9 +2,7 @@ package com.johnturkson.courses;
 
 import java.nio.file.Paths;
 import java.time.Duration;
-import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class Main {
     public static void main(String... args) {
@@ -12,18 +10,8 @@ public class Main {
     
         // List<String> codes = List.of("304", "310", "311", "312", "313", "320", "322");
     
-        List<Section> sections = Courses.getCourses("CPSC").stream()
-                // .filter(c -> codes.contains(c.getCode()))
-                .map(c -> Sections.getSections(c.getSubject(), c.getCode()))
-                .flatMap(Collection::stream)
-                .filter(s -> s.getActivity().matches("Lecture"))
-                // .filter(s -> s.getTerm() == 1)
-                .collect(Collectors.toList());
-    
-        sections.forEach(System.out::println);
-    
         SectionTracker tracker = SectionTracker.newBuilder()
-                .trackedSections(sections)
+                .trackedSections(List.of())
                 .build();
         tracker.printUpdates(true);
         tracker.exportUpdates(true);
@@ -40,6 +28,17 @@ public class Main {
     
         tracker.startTracking(Duration.ofSeconds(60 * 5));
     
+        Sections.publishSections("CPSC")
+                // .filter(c -> codes.contains(c.getCourse()))
+                .consume(s -> {
+                    if (s.getActivity().matches("Lecture")) {
+                        // if (s.getTerm() == 1)
+                        System.out.println(s);
+                        tracker.track(s);
+                    }
+                })
+                .join();
+    
         // List<Course> cpsc = Courses.getCourses("CPSC");
         // Courses.exportAsJSON(cpsc, Paths.get("./src/main/resources/CPSC.json"));
         //
@@ -0,0 +1,60 @@
+package com.johnturkson.courses;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+final class Meeting {
+    private final int start;
+    private final int end;
+    private final String building;
+    
+    private Meeting(int start, int end, String building) {
+        this.start = start;
+        this.end = end;
+        this.building = building;
+    }
+    
+    // Sorted by start time within each term and day
+    static List<List<Meeting>> byDay(List<Section> sections) {
+        List<Integer> terms = new ArrayList<>();
+        List<List<Meeting>> days = new ArrayList<>();
+        for (Section section : sections) {
+            int term = terms.indexOf(section.getTerm());
+            if (term < 0) {
+                term = terms.size();
+                terms.add(section.getTerm());
+                for (int i = 0; i < Occupancy.DAYS.size(); i++) {
+                    days.add(new ArrayList<>());
+                }
+            }
+            for (Map.Entry<Time, Location> entry : section.getSchedule().entrySet()) {
+                Time time = entry.getKey();
+                Meeting meeting = new Meeting(time.getStartHour() * 60 + time.getStartMinute(),
+                        time.getEndHour() * 60 + time.getEndMinute(),
+                        entry.getValue() == null ? null : entry.getValue().getCode());
+                for (String day : time.getDays()) {
+                    int index = Occupancy.DAYS.indexOf(day);
+                    if (index >= 0) {
+                        days.get(term * Occupancy.DAYS.size() + index).add(meeting);
+                    }
+                }
+            }
+        }
+        days.forEach(d -> d.sort(Comparator.comparingInt(Meeting::getStart)));
+        return days;
+    }
+    
+    int getStart() {
+        return start;
+    }
+    
+    int getEnd() {
+        return end;
+    }
+    
+    String getBuilding() {
+        return building;
+    }
+}
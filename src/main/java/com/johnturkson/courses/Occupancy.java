@@ -0,0 +1,143 @@
+package com.johnturkson.courses;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+public final class Occupancy {
+    public static final int SLOT_MINUTES = 5;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    public static final List<String> DAYS = List.of("Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun");
+    public static final Occupancy EMPTY = new Occupancy(new long[(DAYS.size() * SLOTS_PER_DAY + 63) / 64]);
+    private final long[] words;
+    // One bit per non-zero word, so that intersections only look at words both sides use
+    private final long summary;
+    
+    private Occupancy(long[] words) {
+        long summary = 0;
+        for (int i = 0; i < words.length; i++) {
+            if (words[i] != 0) {
+                summary |= 1L << i;
+            }
+        }
+        this.words = words;
+        this.summary = summary;
+    }
+    
+    // Meetings are rounded outwards to whole slots
+    public static Occupancy of(Collection<Time> times) {
+        long[] words = newMask();
+        for (Time time : times) {
+            int start = (time.getStartHour() * 60 + time.getStartMinute()) / SLOT_MINUTES;
+            int end = (time.getEndHour() * 60 + time.getEndMinute() + SLOT_MINUTES - 1) / SLOT_MINUTES;
+            if (end <= start) {
+                end = SLOTS_PER_DAY;
+            }
+            for (String day : time.getDays()) {
+                int index = DAYS.indexOf(day);
+                if (index >= 0) {
+                    set(words, index * SLOTS_PER_DAY + start, index * SLOTS_PER_DAY + end);
+                }
+            }
+        }
+        return new Occupancy(words);
+    }
+    
+    public static Occupancy union(Collection<Occupancy> occupancies) {
+        long[] words = newMask();
+        for (Occupancy occupancy : occupancies) {
+            for (int i = 0; i < words.length; i++) {
+                words[i] |= occupancy.words[i];
+            }
+        }
+        return new Occupancy(words);
+    }
+    
+    public boolean intersects(Occupancy other) {
+        long common = summary & other.summary;
+        while (common != 0) {
+            int i = Long.numberOfTrailingZeros(common);
+            if ((words[i] & other.words[i]) != 0) {
+                return true;
+            }
+            common &= common - 1;
+        }
+        return false;
+    }
+    
+    public Occupancy or(Occupancy other) {
+        long[] combined = words.clone();
+        for (int i = 0; i < combined.length; i++) {
+            combined[i] |= other.words[i];
+        }
+        return new Occupancy(combined);
+    }
+    
+    public boolean isOccupied(int day, int slot) {
+        int bit = day * SLOTS_PER_DAY + slot;
+        return (words[bit >>> 6] & 1L << bit) != 0;
+    }
+    
+    public boolean isEmpty() {
+        return summary == 0;
+    }
+    
+    public int getMinutes() {
+        int slots = 0;
+        for (long word : words) {
+            slots += Long.bitCount(word);
+        }
+        return slots * SLOT_MINUTES;
+    }
+    
+    static long[] newMask() {
+        return new long[EMPTY.words.length];
+    }
+    
+    void addTo(long[] mask) {
+        long remaining = summary;
+        while (remaining != 0) {
+            int i = Long.numberOfTrailingZeros(remaining);
+            mask[i] |= words[i];
+            remaining &= remaining - 1;
+        }
+    }
+    
+    boolean intersects(long[] mask) {
+        long remaining = summary;
+        while (remaining != 0) {
+            int i = Long.numberOfTrailingZeros(remaining);
+            if ((words[i] & mask[i]) != 0) {
+                return true;
+            }
+            remaining &= remaining - 1;
+        }
+        return false;
+    }
+    
+    private static void set(long[] words, int from, int to) {
+        while (from < to) {
+            int word = from >>> 6;
+            int end = Math.min(to, (word + 1) << 6);
+            long bits = end - from == 64 ? -1L : ((1L << (end - from)) - 1) << from;
+            words[word] |= bits;
+            from = end;
+        }
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return Arrays.equals(words, ((Occupancy) o).words);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+}
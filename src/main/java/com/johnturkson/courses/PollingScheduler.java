@@ -0,0 +1,219 @@
+package com.johnturkson.courses;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+
+public class PollingScheduler {
+    private Duration minInterval;
+    private Duration maxInterval;
+    private Duration hotInterval;
+    private int lowSeatThreshold;
+    private double maxRequestsPerSecond;
+    private List<LocalDateTime[]> registrationWindows;
+    private PriorityQueue<Entry> queue;
+    private Map<String, Entry> entries;
+    private double requestRate;
+    private double appliedScale = 1;
+    
+    private PollingScheduler(Duration minInterval, Duration maxInterval, Duration hotInterval, int lowSeatThreshold,
+                             double maxRequestsPerSecond, List<LocalDateTime[]> registrationWindows) {
+        if (minInterval.isZero() || minInterval.isNegative() || maxInterval.compareTo(minInterval) < 0) {
+            throw new IllegalArgumentException("Intervals must be positive and the maximum must not be below the minimum.");
+        }
+        
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval;
+        this.hotInterval = hotInterval;
+        this.lowSeatThreshold = lowSeatThreshold;
+        this.maxRequestsPerSecond = maxRequestsPerSecond;
+        this.registrationWindows = registrationWindows;
+        this.queue = new PriorityQueue<>();
+        this.entries = new HashMap<>();
+    }
+    
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+    
+    private static String getKey(Section section) {
+        return section.getSubject() + " " + section.getCourse() + " " + section.getCode();
+    }
+    
+    public synchronized void add(Section section) {
+        add(section, LocalDateTime.now());
+    }
+    
+    public synchronized void add(Section section, LocalDateTime now) {
+        if (!entries.containsKey(getKey(section))) {
+            Entry entry = new Entry(section, minInterval.toMillis(), now);
+            entries.put(getKey(section), entry);
+            queue.add(entry);
+            requestRate += entry.getRate();
+        }
+    }
+    
+    public synchronized void remove(Section section) {
+        Entry entry = entries.remove(getKey(section));
+        if (entry != null) {
+            queue.remove(entry);
+            requestRate -= entry.getRate();
+        }
+    }
+    
+    public synchronized List<Section> pollDue(LocalDateTime now) {
+        List<Section> due = new ArrayList<>();
+        while (!queue.isEmpty() && !queue.peek().nextPoll.isAfter(now)) {
+            due.add(queue.poll().section);
+        }
+        return due;
+    }
+    
+    public synchronized void record(Section section, boolean changed, LocalDateTime now) {
+        Entry entry = entries.get(getKey(section));
+        if (entry == null) {
+            return;
+        }
+        
+        requestRate -= entry.getRate();
+        double interval = changed ? entry.interval / 4 : entry.interval * 1.5;
+        interval = Math.max(minInterval.toMillis(), Math.min(maxInterval.toMillis(), interval));
+        
+        int seatsRemaining = section.getSeats().getTotalSeatsRemaining();
+        if (seatsRemaining > 0 && seatsRemaining <= lowSeatThreshold) {
+            interval = Math.min(interval, hotInterval.toMillis());
+        }
+        if (isRegistrationPeriod(now)) {
+            interval = Math.min(interval, hotInterval.toMillis());
+        }
+        
+        entry.section = section;
+        entry.interval = interval;
+        requestRate += entry.getRate();
+        
+        double scale = maxRequestsPerSecond > 0 ? Math.max(1, requestRate / maxRequestsPerSecond) : 1;
+        entry.nextPoll = now.plus((long) (interval * scale), ChronoUnit.MILLIS);
+        entry.scale = scale;
+        queue.remove(entry);
+        queue.add(entry);
+        
+        // Over budget, every pending poll is pushed back too rather than only the one just recorded, once the scale
+        // has grown by a tenth so that small fluctuations do not reorder the whole queue
+        appliedScale = Math.min(appliedScale, scale);
+        if (scale > appliedScale * 1.1) {
+            rescale(scale, now);
+        }
+    }
+    
+    private void rescale(double scale, LocalDateTime now) {
+        List<Entry> pending = new ArrayList<>(queue);
+        queue.clear();
+        for (Entry pendingEntry : pending) {
+            if (pendingEntry.scale < scale && pendingEntry.nextPoll.isAfter(now)) {
+                long remaining = ChronoUnit.MILLIS.between(now, pendingEntry.nextPoll);
+                pendingEntry.nextPoll = now.plus((long) (remaining * scale / pendingEntry.scale), ChronoUnit.MILLIS);
+                pendingEntry.scale = scale;
+            }
+        }
+        queue.addAll(pending);
+        appliedScale = scale;
+    }
+    
+    public synchronized Optional<LocalDateTime> getNextPollTime() {
+        return queue.isEmpty() ? Optional.empty() : Optional.of(queue.peek().nextPoll);
+    }
+    
+    public synchronized Optional<Duration> getInterval(Section section) {
+        Entry entry = entries.get(getKey(section));
+        return entry == null ? Optional.empty() : Optional.of(Duration.ofMillis((long) entry.interval));
+    }
+    
+    public synchronized double getRequestRate() {
+        return requestRate;
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    private boolean isRegistrationPeriod(LocalDateTime now) {
+        for (LocalDateTime[] window : registrationWindows) {
+            if (!now.isBefore(window[0]) && now.isBefore(window[1])) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static class Entry implements Comparable<Entry> {
+        private Section section;
+        private double interval;
+        private LocalDateTime nextPoll;
+        private double scale = 1;
+        
+        private Entry(Section section, double interval, LocalDateTime nextPoll) {
+            this.section = section;
+            this.interval = interval;
+            this.nextPoll = nextPoll;
+        }
+        
+        private double getRate() {
+            return 1000 / interval;
+        }
+        
+        @Override
+        public int compareTo(Entry o) {
+            return nextPoll.compareTo(o.nextPoll);
+        }
+    }
+    
+    public static class Builder {
+        private Duration minInterval = Duration.ofSeconds(5);
+        private Duration maxInterval = Duration.ofHours(4);
+        private Duration hotInterval = Duration.ofSeconds(15);
+        private int lowSeatThreshold = 5;
+        private double maxRequestsPerSecond = 5;
+        private List<LocalDateTime[]> registrationWindows = new ArrayList<>();
+        
+        public Builder minInterval(Duration minInterval) {
+            this.minInterval = minInterval;
+            return this;
+        }
+        
+        public Builder maxInterval(Duration maxInterval) {
+            this.maxInterval = maxInterval;
+            return this;
+        }
+        
+        public Builder hotInterval(Duration hotInterval) {
+            this.hotInterval = hotInterval;
+            return this;
+        }
+        
+        public Builder lowSeatThreshold(int lowSeatThreshold) {
+            this.lowSeatThreshold = lowSeatThreshold;
+            return this;
+        }
+        
+        public Builder maxRequestsPerSecond(double maxRequestsPerSecond) {
+            this.maxRequestsPerSecond = maxRequestsPerSecond;
+            return this;
+        }
+        
+        public Builder registrationWindow(LocalDateTime start, LocalDateTime end) {
+            registrationWindows.add(new LocalDateTime[]{start, end});
+            return this;
+        }
+        
+        public PollingScheduler build() {
+            return new PollingScheduler(minInterval, maxInterval, hotInterval, lowSeatThreshold,
+                    maxRequestsPerSecond, new ArrayList<>(registrationWindows));
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.johnturkson.courses;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+public class RateLimiter {
+    private static final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "rate-limiter");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private int maxConcurrentRequests;
+    private double requestsPerSecond;
+    private double burst;
+    private Map<String, Deque<Pending<?>>> queues;
+    private Deque<String> rotation;
+    private double tokens;
+    private long lastRefill;
+    private boolean refillScheduled;
+    private int inFlight;
+    private int queued;
+    private long dispatched;
+    private long totalWaitNanos;
+    private long maxWaitNanos;
+    
+    private RateLimiter(int maxConcurrentRequests, double requestsPerSecond, int burst) {
+        if (maxConcurrentRequests < 1) {
+            throw new IllegalArgumentException("Maximum concurrent requests must be at least one.");
+        }
+        
+        if (burst < 1) {
+            throw new IllegalArgumentException("Burst size must be at least one.");
+        }
+        
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.requestsPerSecond = requestsPerSecond;
+        this.burst = burst;
+        this.queues = new HashMap<>();
+        this.rotation = new ArrayDeque<>();
+        this.tokens = burst;
+        this.lastRefill = System.nanoTime();
+    }
+    
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+    
+    public <T> CompletableFuture<T> submit(String key, Supplier<CompletableFuture<T>> request) {
+        Pending<T> pending = new Pending<>(request);
+        synchronized (this) {
+            Deque<Pending<?>> queue = queues.computeIfAbsent(key, k -> new ArrayDeque<>());
+            if (queue.isEmpty()) {
+                rotation.addLast(key);
+            }
+            queue.addLast(pending);
+            queued++;
+        }
+        dispatch();
+        return pending.result;
+    }
+    
+    private void dispatch() {
+        while (true) {
+            Pending<?> next;
+            synchronized (this) {
+                if (queued == 0 || inFlight >= maxConcurrentRequests || !acquireToken()) {
+                    return;
+                }
+                
+                String key = rotation.pollFirst();
+                Deque<Pending<?>> queue = queues.get(key);
+                next = queue.pollFirst();
+                if (queue.isEmpty()) {
+                    queues.remove(key);
+                } else {
+                    rotation.addLast(key);
+                }
+                
+                long wait = System.nanoTime() - next.enqueued;
+                queued--;
+                inFlight++;
+                dispatched++;
+                totalWaitNanos += wait;
+                maxWaitNanos = Math.max(maxWaitNanos, wait);
+            }
+            next.start().whenComplete((r, e) -> release());
+        }
+    }
+    
+    private boolean acquireToken() {
+        if (requestsPerSecond <= 0) {
+            return true;
+        }
+        
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - lastRefill) * requestsPerSecond / 1e9);
+        lastRefill = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        
+        if (!refillScheduled) {
+            refillScheduled = true;
+            long delay = (long) Math.ceil((1 - tokens) * 1e9 / requestsPerSecond);
+            timer.schedule(() -> {
+                synchronized (this) {
+                    refillScheduled = false;
+                }
+                dispatch();
+            }, delay, TimeUnit.NANOSECONDS);
+        }
+        return false;
+    }
+    
+    private void release() {
+        synchronized (this) {
+            inFlight--;
+        }
+        dispatch();
+    }
+    
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+    
+    public double getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+    
+    public synchronized int getQueueDepth() {
+        return queued;
+    }
+    
+    public synchronized int getQueueDepth(String key) {
+        Deque<Pending<?>> queue = queues.get(key);
+        return queue == null ? 0 : queue.size();
+    }
+    
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+    
+    public synchronized long getDispatched() {
+        return dispatched;
+    }
+    
+    public synchronized Duration getAverageWaitTime() {
+        return dispatched == 0 ? Duration.ZERO : Duration.ofNanos(totalWaitNanos / dispatched);
+    }
+    
+    public synchronized Duration getMaxWaitTime() {
+        return Duration.ofNanos(maxWaitNanos);
+    }
+    
+    @Override
+    public synchronized String toString() {
+        return "In flight: " + inFlight + " of " + maxConcurrentRequests + ", " +
+                "queued: " + queued + ", " +
+                "average wait: " + getAverageWaitTime().toMillis() + " ms";
+    }
+    
+    private static class Pending<T> {
+        private Supplier<CompletableFuture<T>> request;
+        private CompletableFuture<T> result;
+        private long enqueued;
+        
+        private Pending(Supplier<CompletableFuture<T>> request) {
+            this.request = request;
+            this.result = new CompletableFuture<>();
+            this.enqueued = System.nanoTime();
+        }
+        
+        private CompletableFuture<T> start() {
+            CompletableFuture<T> future;
+            try {
+                future = request.get();
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            return future.whenComplete((r, e) -> {
+                if (e != null) {
+                    result.completeExceptionally(e);
+                } else {
+                    result.complete(r);
+                }
+            });
+        }
+    }
+    
+    public static class Builder {
+        private int maxConcurrentRequests = 8;
+        private double requestsPerSecond = 10;
+        private int burst = 10;
+        
+        public Builder maxConcurrentRequests(int maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+            return this;
+        }
+        
+        public Builder requestsPerSecond(double requestsPerSecond) {
+            this.requestsPerSecond = requestsPerSecond;
+            return this;
+        }
+        
+        public Builder burst(int burst) {
+            this.burst = burst;
+            return this;
+        }
+        
+        public RateLimiter build() {
+            return new RateLimiter(maxConcurrentRequests, requestsPerSecond, burst);
+        }
+    }
+}
@@ -0,0 +1,588 @@
+package com.johnturkson.courses;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+import javax.net.ssl.SSLSession;
+
+public class ResponseCache implements Closeable {
+    private Map<String, Duration> timeToLive;
+    private Duration defaultTimeToLive;
+    private long maxBytes;
+    private long maxEntryBytes;
+    private Path spillDirectory;
+    private long maxSpillBytes;
+    private LinkedHashMap<String, Entry> entries;
+    private LinkedHashMap<String, SpilledEntry> spilled;
+    private long bytes;
+    private long spilledBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long spills;
+    private long spillHits;
+    
+    private ResponseCache(Map<String, Duration> timeToLive, Duration defaultTimeToLive, long maxBytes,
+                          Path spillDirectory, long maxSpillBytes) {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("Cache size must be at least one byte.");
+        }
+        
+        this.timeToLive = timeToLive;
+        this.defaultTimeToLive = defaultTimeToLive;
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = Math.max(1, maxBytes / 8);
+        this.spillDirectory = spillDirectory;
+        this.maxSpillBytes = maxSpillBytes;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.spilled = new LinkedHashMap<>(16, 0.75f, true);
+    }
+    
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+    
+    public Duration getTimeToLive(String url) {
+        int start = url.indexOf("tname=");
+        if (start < 0) {
+            return defaultTimeToLive;
+        }
+        int end = url.indexOf('&', start);
+        return timeToLive.getOrDefault(url.substring(start + 6, end < 0 ? url.length() : end), defaultTimeToLive);
+    }
+    
+    <T> Optional<CompletableFuture<HttpResponse<T>>> replay(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        Entry entry = get(request.uri().toString());
+        if (entry == null) {
+            return Optional.empty();
+        }
+        
+        HttpResponse.BodySubscriber<T> subscriber = handler.apply(entry);
+        subscriber.onSubscribe(new Flow.Subscription() {
+            private boolean done;
+            
+            @Override
+            public void request(long n) {
+                if (!done) {
+                    done = true;
+                    subscriber.onNext(List.of(ByteBuffer.wrap(entry.body).asReadOnlyBuffer()));
+                    subscriber.onComplete();
+                }
+            }
+            
+            @Override
+            public void cancel() {
+                done = true;
+            }
+        });
+        return Optional.of(subscriber.getBody()
+                .toCompletableFuture()
+                .thenApply(body -> new CachedResponse<>(request, entry, body)));
+    }
+    
+    <T> HttpResponse.BodyHandler<T> record(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        String url = request.uri().toString();
+        return info -> {
+            HttpResponse.BodySubscriber<T> subscriber = handler.apply(info);
+            if (info.statusCode() != 200 || getTimeToLive(url).isZero()) {
+                return subscriber;
+            }
+            return new RecordingSubscriber<>(subscriber, body -> put(url, new Entry(info.statusCode(),
+                    info.headers().map(), info.version(), body,
+                    System.currentTimeMillis() + getTimeToLive(url).toMillis())), maxEntryBytes);
+        };
+    }
+    
+    public void invalidate(String url) {
+        SpilledEntry spilledEntry;
+        synchronized (this) {
+            spilledEntry = remove(url);
+        }
+        if (spilledEntry != null) {
+            delete(spilledEntry);
+        }
+    }
+    
+    public void clear() {
+        List<SpilledEntry> removed;
+        synchronized (this) {
+            entries.clear();
+            removed = new ArrayList<>(spilled.values());
+            spilled.clear();
+            spilledBytes = 0;
+            bytes = 0;
+        }
+        removed.forEach(this::delete);
+    }
+    
+    @Override
+    public void close() {
+        clear();
+        if (spillDirectory != null) {
+            try {
+                Files.deleteIfExists(spillDirectory);
+            } catch (DirectoryNotEmptyException e) {
+                // Left in place since other caches may share the directory
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+    
+    private Entry get(String url) {
+        long now = System.currentTimeMillis();
+        SpilledEntry spilledEntry;
+        synchronized (this) {
+            Entry entry = entries.get(url);
+            spilledEntry = entry == null ? spilled.remove(url) : null;
+            if (entry != null || spilledEntry == null) {
+                return count(url, entry, now);
+            }
+            spilledBytes -= spilledEntry.size;
+        }
+        
+        Entry entry = read(spilledEntry);
+        delete(spilledEntry);
+        List<Map.Entry<String, Entry>> evicted = List.of();
+        synchronized (this) {
+            if (entry != null && entry.expires > now && !entries.containsKey(url)) {
+                spillHits++;
+                entries.put(url, entry);
+                bytes += entry.body.length;
+                evicted = evict();
+            }
+            entry = count(url, entries.getOrDefault(url, entry), now);
+        }
+        spill(evicted);
+        return entry;
+    }
+    
+    private Entry count(String url, Entry entry, long now) {
+        if (entry != null && entry.expires <= now) {
+            if (entries.remove(url, entry)) {
+                bytes -= entry.body.length;
+            }
+            expirations++;
+            entry = null;
+        }
+        
+        if (entry == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return entry;
+    }
+    
+    private void put(String url, Entry entry) {
+        if (entry.body.length > maxEntryBytes) {
+            return;
+        }
+        
+        SpilledEntry previous;
+        List<Map.Entry<String, Entry>> evicted;
+        synchronized (this) {
+            previous = remove(url);
+            entries.put(url, entry);
+            bytes += entry.body.length;
+            evicted = evict();
+        }
+        if (previous != null) {
+            delete(previous);
+        }
+        spill(evicted);
+    }
+    
+    private SpilledEntry remove(String url) {
+        Entry entry = entries.remove(url);
+        if (entry != null) {
+            bytes -= entry.body.length;
+        }
+        SpilledEntry spilledEntry = spilled.remove(url);
+        if (spilledEntry != null) {
+            spilledBytes -= spilledEntry.size;
+        }
+        return spilledEntry;
+    }
+    
+    private List<Map.Entry<String, Entry>> evict() {
+        List<Map.Entry<String, Entry>> evicted = new ArrayList<>();
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (bytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Entry> eldest = iterator.next();
+            iterator.remove();
+            bytes -= eldest.getValue().body.length;
+            evictions++;
+            evicted.add(Map.entry(eldest.getKey(), eldest.getValue()));
+        }
+        return evicted;
+    }
+    
+    // Writes evicted entries to disk without holding the lock, then registers them unless the url was cached again
+    // in the meantime
+    private void spill(List<Map.Entry<String, Entry>> evicted) {
+        if (spillDirectory == null) {
+            return;
+        }
+        
+        for (Map.Entry<String, Entry> eviction : evicted) {
+            String url = eviction.getKey();
+            Entry entry = eviction.getValue();
+            if (entry.expires <= System.currentTimeMillis()) {
+                continue;
+            }
+            
+            SpilledEntry spilledEntry = write(entry);
+            if (spilledEntry == null) {
+                continue;
+            }
+            
+            List<SpilledEntry> removed = new ArrayList<>();
+            synchronized (this) {
+                if (entries.containsKey(url)) {
+                    removed.add(spilledEntry);
+                } else {
+                    SpilledEntry previous = spilled.put(url, spilledEntry);
+                    if (previous != null) {
+                        spilledBytes -= previous.size;
+                        removed.add(previous);
+                    }
+                    spilledBytes += spilledEntry.size;
+                    spills++;
+                    Iterator<SpilledEntry> iterator = spilled.values().iterator();
+                    while (spilledBytes > maxSpillBytes && iterator.hasNext()) {
+                        SpilledEntry eldest = iterator.next();
+                        iterator.remove();
+                        spilledBytes -= eldest.size;
+                        removed.add(eldest);
+                    }
+                }
+            }
+            removed.forEach(this::delete);
+        }
+    }
+    
+    private SpilledEntry write(Entry entry) {
+        try {
+            Files.createDirectories(spillDirectory);
+            Path path = Files.createTempFile(spillDirectory, "response", ".cache");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+                out.writeInt(entry.statusCode);
+                out.writeUTF(entry.version.name());
+                out.writeLong(entry.expires);
+                out.writeInt(entry.headers.size());
+                for (Map.Entry<String, List<String>> header : entry.headers.entrySet()) {
+                    out.writeUTF(header.getKey());
+                    out.writeInt(header.getValue().size());
+                    for (String value : header.getValue()) {
+                        out.writeUTF(value);
+                    }
+                }
+                out.writeInt(entry.body.length);
+                out.write(entry.body);
+            }
+            return new SpilledEntry(path, Files.size(path));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+    
+    private Entry read(SpilledEntry spilledEntry) {
+        Path path = spilledEntry.path;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            int statusCode = in.readInt();
+            HttpClient.Version version = HttpClient.Version.valueOf(in.readUTF());
+            long expires = in.readLong();
+            Map<String, List<String>> headers = new HashMap<>();
+            int headerCount = in.readInt();
+            for (int i = 0; i < headerCount; i++) {
+                String name = in.readUTF();
+                List<String> values = new ArrayList<>();
+                int valueCount = in.readInt();
+                for (int j = 0; j < valueCount; j++) {
+                    values.add(in.readUTF());
+                }
+                headers.put(name, values);
+            }
+            byte[] body = new byte[in.readInt()];
+            in.readFully(body);
+            return new Entry(statusCode, headers, version, body, expires);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+    
+    private void delete(SpilledEntry entry) {
+        try {
+            Files.deleteIfExists(entry.path);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    public synchronized long getHits() {
+        return hits;
+    }
+    
+    public synchronized long getMisses() {
+        return misses;
+    }
+    
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+    
+    public synchronized long getExpirations() {
+        return expirations;
+    }
+    
+    public synchronized long getSpills() {
+        return spills;
+    }
+    
+    public synchronized long getSpillHits() {
+        return spillHits;
+    }
+    
+    public synchronized long getSize() {
+        return bytes;
+    }
+    
+    public synchronized long getSpilledSize() {
+        return spilledBytes;
+    }
+    
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+    
+    public synchronized double getHitRate() {
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+    
+    @Override
+    public synchronized String toString() {
+        return String.format("Entries: %d (%d of %d bytes), hits: %d, misses: %d (%.1f%% hit rate), " +
+                        "evictions: %d, expirations: %d, spilled: %d (%d bytes, %d hits)",
+                entries.size(), bytes, maxBytes, hits, misses, getHitRate() * 100,
+                evictions, expirations, spills, spilledBytes, spillHits);
+    }
+    
+    private static class Entry implements HttpResponse.ResponseInfo {
+        private int statusCode;
+        private Map<String, List<String>> headers;
+        private HttpClient.Version version;
+        private byte[] body;
+        private long expires;
+        
+        private Entry(int statusCode, Map<String, List<String>> headers, HttpClient.Version version, byte[] body,
+                      long expires) {
+            this.statusCode = statusCode;
+            this.headers = headers;
+            this.version = version;
+            this.body = body;
+            this.expires = expires;
+        }
+        
+        @Override
+        public int statusCode() {
+            return statusCode;
+        }
+        
+        @Override
+        public HttpHeaders headers() {
+            return HttpHeaders.of(headers, (name, value) -> true);
+        }
+        
+        @Override
+        public HttpClient.Version version() {
+            return version;
+        }
+    }
+    
+    private static class SpilledEntry {
+        private Path path;
+        private long size;
+        
+        private SpilledEntry(Path path, long size) {
+            this.path = path;
+            this.size = size;
+        }
+    }
+    
+    private static class RecordingSubscriber<T> implements HttpResponse.BodySubscriber<T> {
+        private HttpResponse.BodySubscriber<T> delegate;
+        private Consumer<byte[]> onBody;
+        private long maxBytes;
+        private byte[] body;
+        private int size;
+        
+        private RecordingSubscriber(HttpResponse.BodySubscriber<T> delegate, Consumer<byte[]> onBody, long maxBytes) {
+            this.delegate = delegate;
+            this.onBody = onBody;
+            this.maxBytes = maxBytes;
+            this.body = new byte[(int) Math.min(maxBytes, 8192)];
+        }
+        
+        @Override
+        public CompletionStage<T> getBody() {
+            return delegate.getBody();
+        }
+        
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            delegate.onSubscribe(subscription);
+        }
+        
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            // Bodies that are too large to cache stop being recorded as soon as they pass the limit
+            for (int i = 0; i < buffers.size() && body != null; i++) {
+                ByteBuffer buffer = buffers.get(i);
+                int length = buffer.remaining();
+                if (size + (long) length > maxBytes) {
+                    body = null;
+                } else {
+                    if (size + length > body.length) {
+                        body = Arrays.copyOf(body, (int) Math.min(maxBytes, Math.max(size + length, body.length * 2L)));
+                    }
+                    buffer.duplicate().get(body, size, length);
+                    size += length;
+                }
+            }
+            delegate.onNext(buffers);
+        }
+        
+        @Override
+        public void onError(Throwable throwable) {
+            body = null;
+            delegate.onError(throwable);
+        }
+        
+        @Override
+        public void onComplete() {
+            if (body != null) {
+                onBody.accept(size == body.length ? body : Arrays.copyOf(body, size));
+            }
+            delegate.onComplete();
+        }
+    }
+    
+    private static class CachedResponse<T> implements HttpResponse<T> {
+        private HttpRequest request;
+        private Entry entry;
+        private T body;
+        
+        private CachedResponse(HttpRequest request, Entry entry, T body) {
+            this.request = request;
+            this.entry = entry;
+            this.body = body;
+        }
+        
+        @Override
+        public int statusCode() {
+            return entry.statusCode;
+        }
+        
+        @Override
+        public HttpRequest request() {
+            return request;
+        }
+        
+        @Override
+        public Optional<HttpResponse<T>> previousResponse() {
+            return Optional.empty();
+        }
+        
+        @Override
+        public HttpHeaders headers() {
+            return entry.headers();
+        }
+        
+        @Override
+        public T body() {
+            return body;
+        }
+        
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+        
+        @Override
+        public URI uri() {
+            return request.uri();
+        }
+        
+        @Override
+        public HttpClient.Version version() {
+            return entry.version;
+        }
+    }
+    
+    public static class Builder {
+        private Map<String, Duration> timeToLive = new HashMap<>(Map.of(
+                "subj-all-departments", Duration.ofDays(1),
+                "subj-department", Duration.ofHours(1),
+                "subj-course", Duration.ofSeconds(10),
+                "subj-section", Duration.ofSeconds(5)));
+        private Duration defaultTimeToLive = Duration.ofMinutes(1);
+        private long maxBytes = 32L * 1024 * 1024;
+        private Path spillDirectory;
+        private long maxSpillBytes = 256L * 1024 * 1024;
+        
+        public Builder timeToLive(String page, Duration timeToLive) {
+            this.timeToLive.put(page, timeToLive);
+            return this;
+        }
+        
+        public Builder defaultTimeToLive(Duration defaultTimeToLive) {
+            this.defaultTimeToLive = defaultTimeToLive;
+            return this;
+        }
+        
+        public Builder maxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+            return this;
+        }
+        
+        public Builder spillTo(Path spillDirectory, long maxSpillBytes) {
+            this.spillDirectory = spillDirectory;
+            this.maxSpillBytes = maxSpillBytes;
+            return this;
+        }
+        
+        public ResponseCache build() {
+            return new ResponseCache(new HashMap<>(timeToLive), defaultTimeToLive, maxBytes,
+                    spillDirectory, maxSpillBytes);
+        }
+    }
+}
@@ -1,5 +1,233 @@
 package com.johnturkson.courses;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 public class Rule {
+    public static final Rule NONE = newBuilder().build();
+    private long[] forbiddenSlots;
+    private boolean restrictsTimes;
+    private Set<String> avoidedInstructors;
+    private Set<String> preferredInstructors;
+    private Map<String, Map<String, Set<String>>> forbiddenSections;
+    private String[][] requiredSections;
+    private boolean sameTerm;
+    
+    private Rule(long[] forbiddenSlots, Set<String> avoidedInstructors, Set<String> preferredInstructors,
+                 Map<String, Map<String, Set<String>>> forbiddenSections, String[][] requiredSections,
+                 boolean sameTerm) {
+        boolean restrictsTimes = false;
+        for (long word : forbiddenSlots) {
+            restrictsTimes |= word != 0;
+        }
+        
+        this.forbiddenSlots = forbiddenSlots;
+        this.restrictsTimes = restrictsTimes;
+        this.avoidedInstructors = avoidedInstructors;
+        this.preferredInstructors = preferredInstructors;
+        this.forbiddenSections = forbiddenSections;
+        this.requiredSections = requiredSections;
+        this.sameTerm = sameTerm;
+    }
+    
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+    
+    // Required sections are only checked against whole timetables
+    public boolean test(Section section) {
+        if (restrictsTimes && section.getOccupancy().intersects(forbiddenSlots)) {
+            return false;
+        }
+        if (!avoidedInstructors.isEmpty() && section.getInstructor() != null &&
+                avoidedInstructors.contains(section.getInstructor().trim())) {
+            return false;
+        }
+        return !matches(forbiddenSections, section);
+    }
+    
+    public boolean test(List<Section> timetable) {
+        for (int i = 0; i < timetable.size(); i++) {
+            if (!test(timetable.get(i))) {
+                return false;
+            }
+        }
+        for (String[] required : requiredSections) {
+            if (!contains(timetable, required)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    public boolean isRequired(Section section) {
+        for (String[] required : requiredSections) {
+            if (isSection(section, required)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    public boolean isSameTerm() {
+        return sameTerm;
+    }
+    
+    public List<String> getRequiredSections() {
+        List<String> sections = new ArrayList<>(requiredSections.length);
+        for (String[] required : requiredSections) {
+            sections.add(required[0] + " " + required[1] + " " + required[2]);
+        }
+        return sections;
+    }
+    
+    public Criterion getInstructorPreference() {
+        return sections -> {
+            if (preferredInstructors.isEmpty()) {
+                return 0;
+            }
+            
+            int unpreferred = 0;
+            for (int i = 0; i < sections.size(); i++) {
+                String instructor = sections.get(i).getInstructor();
+                if (instructor == null || !preferredInstructors.contains(instructor.trim())) {
+                    unpreferred++;
+                }
+            }
+            return unpreferred;
+        };
+    }
+    
+    int getRequiredCount() {
+        return requiredSections.length;
+    }
+    
+    private static boolean matches(Map<String, Map<String, Set<String>>> sections, Section section) {
+        if (sections.isEmpty()) {
+            return false;
+        }
+        
+        Map<String, Set<String>> courses = sections.get(section.getSubject().trim());
+        if (courses == null) {
+            return false;
+        }
+        Set<String> codes = courses.get(section.getCourse().trim());
+        return codes != null && codes.contains(section.getCode().trim());
+    }
+    
+    private static boolean contains(List<Section> timetable, String[] required) {
+        for (int i = 0; i < timetable.size(); i++) {
+            if (isSection(timetable.get(i), required)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static boolean isSection(Section section, String[] key) {
+        return section.getSubject().trim().equals(key[0]) &&
+                section.getCourse().trim().equals(key[1]) &&
+                section.getCode().trim().equals(key[2]);
+    }
     
+    public static class Builder {
+        private long[] forbiddenSlots = Occupancy.newMask();
+        private Set<String> avoidedInstructors = new HashSet<>();
+        private Set<String> preferredInstructors = new HashSet<>();
+        private Map<String, Map<String, Set<String>>> forbiddenSections = new HashMap<>();
+        private List<String[]> requiredSections = new ArrayList<>();
+        private boolean sameTerm = true;
+        
+        // Several windows only allow the times they share
+        public Builder window(int startHour, int startMinute, int endHour, int endMinute) {
+            List<String> days = Occupancy.DAYS;
+            if (startHour > 0 || startMinute > 0) {
+                block(days, 0, 0, startHour, startMinute);
+            }
+            if (endHour < 24) {
+                block(days, endHour, endMinute, 24, 0);
+            }
+            return this;
+        }
+        
+        public Builder blockDay(String day) {
+            if (!Occupancy.DAYS.contains(day)) {
+                throw new IllegalArgumentException("Day must be one of " + String.join(", ", Occupancy.DAYS) + ".");
+            }
+            
+            return block(List.of(day), 0, 0, 24, 0);
+        }
+        
+        public Builder blockTime(Time time) {
+            Occupancy.of(List.of(time)).addTo(forbiddenSlots);
+            return this;
+        }
+        
+        public Builder avoidInstructor(String instructor) {
+            avoidedInstructors.add(instructor.trim());
+            return this;
+        }
+        
+        public Builder preferInstructor(String instructor) {
+            preferredInstructors.add(instructor.trim());
+            return this;
+        }
+        
+        public Builder require(String subject, String course, String code) {
+            String[] section = {subject.trim(), course.trim(), code.trim()};
+            if (requiredSections.stream().noneMatch(r -> Arrays.equals(r, section))) {
+                requiredSections.add(section);
+            }
+            return this;
+        }
+        
+        public Builder forbid(String subject, String course, String code) {
+            forbiddenSections.computeIfAbsent(subject.trim(), k -> new HashMap<>())
+                    .computeIfAbsent(course.trim(), k -> new HashSet<>())
+                    .add(code.trim());
+            return this;
+        }
+        
+        public Builder sameTerm(boolean sameTerm) {
+            this.sameTerm = sameTerm;
+            return this;
+        }
+        
+        public Rule build() {
+            return new Rule(forbiddenSlots.clone(), Set.copyOf(avoidedInstructors), Set.copyOf(preferredInstructors),
+                    copy(forbiddenSections), requiredSections.toArray(new String[0][]), sameTerm);
+        }
+        
+        private Builder block(List<String> days, int startHour, int startMinute, int endHour, int endMinute) {
+            if (startHour * 60 + startMinute >= endHour * 60 + endMinute) {
+                return this;
+            }
+            
+            // A meeting ending at midnight is written as ending at 0:00, which Occupancy treats as the end of the day
+            Time time = Time.newBuilder()
+                    .days(days)
+                    .startHour(startHour)
+                    .startMinute(startMinute)
+                    .endHour(endHour % 24)
+                    .endMinute(endMinute)
+                    .build();
+            Occupancy.of(List.of(time)).addTo(forbiddenSlots);
+            return this;
+        }
+        
+        private static Map<String, Map<String, Set<String>>> copy(Map<String, Map<String, Set<String>>> sections) {
+            Map<String, Map<String, Set<String>>> copied = new HashMap<>();
+            sections.forEach((subject, courses) -> {
+                Map<String, Set<String>> codes = new HashMap<>();
+                courses.forEach((course, code) -> codes.put(course, Set.copyOf(code)));
+                copied.put(subject, Map.copyOf(codes));
+            });
+            return Map.copyOf(copied);
+        }
+    }
 }
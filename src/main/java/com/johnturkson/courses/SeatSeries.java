@@ -0,0 +1,604 @@
+package com.johnturkson.courses;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+public class SeatSeries implements Closeable {
+    private static final int FRAME_HEADER = 8;
+    private static final int COUNTERS = Counter.values().length;
+    private Path location;
+    private int blockSize;
+    private long maxAge;
+    private FileChannel channel;
+    private Map<String, List<Block>> blocks;
+    private Map<String, Head> heads;
+    private long samples;
+    private long sweptAt = Long.MIN_VALUE;
+    private Thread shutdownHook;
+    
+    private SeatSeries(Path location, int blockSize, Duration maxAge) {
+        this.location = location;
+        this.blockSize = blockSize;
+        this.maxAge = maxAge.toSeconds();
+        this.blocks = new HashMap<>();
+        this.heads = new LinkedHashMap<>();
+    }
+    
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+    
+    public static SeatSeries open(Path location) {
+        return newBuilder().location(location).build();
+    }
+    
+    private void load() throws IOException {
+        if (location.getParent() != null) {
+            Files.createDirectories(location.getParent());
+        }
+        channel = FileChannel.open(location, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER);
+        while (position + FRAME_HEADER <= channel.size()) {
+            header.clear();
+            read(header, position);
+            int length = header.getInt(0);
+            if (length <= 0 || position + FRAME_HEADER + length > channel.size()) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            read(payload, position + FRAME_HEADER);
+            CRC32 checksum = new CRC32();
+            checksum.update(payload.array());
+            if ((int) checksum.getValue() != header.getInt(4)) {
+                break;
+            }
+            
+            payload.flip();
+            Block block = Block.readHeader(payload, position + FRAME_HEADER, length);
+            blocks.computeIfAbsent(block.key, k -> new ArrayList<>()).add(block);
+            samples += block.count;
+            position += FRAME_HEADER + length;
+        }
+        channel.truncate(position);
+        channel.position(position);
+        
+        // Samples that are not yet sealed would otherwise be lost when the process exits without closing the series
+        shutdownHook = new Thread(this::flush, "seat-series");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+    
+    private static String getKey(String subject, String course, String code) {
+        return subject.trim() + " " + course.trim() + " " + code.trim();
+    }
+    
+    private static String getKey(Section section) {
+        return getKey(section.getSubject(), section.getCourse(), section.getCode());
+    }
+    
+    public synchronized void record(Section section, LocalDateTime time) {
+        String key = getKey(section);
+        long now = time.toEpochSecond(ZoneOffset.UTC);
+        Head head = heads.computeIfAbsent(key, k -> new Head(Math.min(blockSize, 16)));
+        head.add(now, section.getSeats());
+        samples++;
+        if (head.size == blockSize) {
+            seal(key, head);
+        }
+        
+        // Sweeping once per age limit keeps every sample unsealed for at most twice the limit
+        if (now >= sweptAt + maxAge) {
+            sweptAt = now;
+            Iterator<Map.Entry<String, Head>> iterator = heads.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Head> entry = iterator.next();
+                Head stale = entry.getValue();
+                if (stale.size == 0 || now - stale.times[0] >= maxAge) {
+                    if (stale.size > 0) {
+                        seal(entry.getKey(), stale);
+                    }
+                    iterator.remove();
+                }
+            }
+        }
+    }
+    
+    public synchronized void flush() {
+        if (!channel.isOpen()) {
+            return;
+        }
+        
+        for (Map.Entry<String, Head> entry : heads.entrySet()) {
+            if (entry.getValue().size > 0) {
+                seal(entry.getKey(), entry.getValue());
+            }
+        }
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private void seal(String key, Head head) {
+        Block block = Block.summarize(key, head.times, head.values, head.size);
+        byte[] payload = block.encode(head.times, head.values);
+        CRC32 checksum = new CRC32();
+        checksum.update(payload);
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER + payload.length)
+                .putInt(payload.length)
+                .putInt((int) checksum.getValue())
+                .put(payload);
+        frame.flip();
+        try {
+            block.offset = channel.position() + FRAME_HEADER;
+            block.length = payload.length;
+            while (frame.hasRemaining()) {
+                channel.write(frame);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        blocks.computeIfAbsent(key, k -> new ArrayList<>()).add(block);
+        head.size = 0;
+    }
+    
+    public List<Sample> getSamples(String subject, String course, String code, LocalDateTime from, LocalDateTime to) {
+        List<Sample> samples = new ArrayList<>();
+        scan(getKey(subject, course, code), from, to, null, (time, values) ->
+                samples.add(new Sample(LocalDateTime.ofEpochSecond(time, 0, ZoneOffset.UTC),
+                        SeatInformation.newBuilder()
+                                .totalSeatsRemaining(values[0])
+                                .currentlyRegistered(values[1])
+                                .generalSeatsRemaining(values[2])
+                                .restrictedSeatsRemaining(values[3])
+                                .build())));
+        return samples;
+    }
+    
+    public Rollup getSummary(String subject, String course, String code, LocalDateTime from, LocalDateTime to) {
+        Rollup summary = new Rollup(from.toEpochSecond(ZoneOffset.UTC));
+        scan(getKey(subject, course, code), from, to, block -> {
+            summary.merge(block);
+            return true;
+        }, summary::add);
+        return summary;
+    }
+    
+    public List<Rollup> getRollups(String subject, String course, String code, LocalDateTime from, LocalDateTime to,
+                                   Duration interval) {
+        long width = interval.toSeconds();
+        if (width < 1) {
+            throw new IllegalArgumentException("Rollup interval must be at least one second.");
+        }
+        
+        Map<Long, Rollup> rollups = new LinkedHashMap<>();
+        scan(getKey(subject, course, code), from, to, block -> {
+            long bucket = Math.floorDiv(block.from, width);
+            if (bucket != Math.floorDiv(block.to, width)) {
+                return false;
+            }
+            rollups.computeIfAbsent(bucket, b -> new Rollup(b * width)).merge(block);
+            return true;
+        }, (time, values) -> rollups.computeIfAbsent(Math.floorDiv(time, width), b -> new Rollup(b * width))
+                .add(time, values));
+        return new ArrayList<>(rollups.values());
+    }
+    
+    private synchronized void scan(String key, LocalDateTime from, LocalDateTime to, BlockVisitor summaries,
+                                   SampleVisitor visitor) {
+        long start = from.toEpochSecond(ZoneOffset.UTC);
+        long end = to.toEpochSecond(ZoneOffset.UTC);
+        for (Block block : blocks.getOrDefault(key, List.of())) {
+            if (block.to < start || block.from > end) {
+                continue;
+            }
+            if (summaries != null && block.from >= start && block.to <= end && summaries.visit(block)) {
+                continue;
+            }
+            
+            ByteBuffer payload = ByteBuffer.allocate(block.length);
+            read(payload, block.offset);
+            payload.flip();
+            long[] times = new long[block.count];
+            int[][] values = new int[COUNTERS][block.count];
+            Block.decode(payload, times, values);
+            visit(times, values, block.count, start, end, visitor);
+        }
+        
+        Head head = heads.get(key);
+        if (head != null) {
+            visit(head.times, head.values, head.size, start, end, visitor);
+        }
+    }
+    
+    private static void visit(long[] times, int[][] values, int count, long start, long end, SampleVisitor visitor) {
+        int[] sample = new int[COUNTERS];
+        for (int i = 0; i < count; i++) {
+            if (times[i] >= start && times[i] <= end) {
+                for (int c = 0; c < COUNTERS; c++) {
+                    sample[c] = values[c][i];
+                }
+                visitor.visit(times[i], sample);
+            }
+        }
+    }
+    
+    private void read(ByteBuffer buffer, long position) {
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of seat series at " + position + ".");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    public synchronized long size() {
+        return samples;
+    }
+    
+    public synchronized long getSizeOnDisk() {
+        try {
+            return channel.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @Override
+    public synchronized void close() {
+        flush();
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // The hook is already running or has run
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private interface BlockVisitor {
+        boolean visit(Block block);
+    }
+    
+    private interface SampleVisitor {
+        void visit(long time, int[] values);
+    }
+    
+    public enum Counter {
+        TOTAL_SEATS_REMAINING,
+        CURRENTLY_REGISTERED,
+        GENERAL_SEATS_REMAINING,
+        RESTRICTED_SEATS_REMAINING;
+        
+        private static int get(SeatInformation seats, int counter) {
+            switch (counter) {
+                case 0:
+                    return seats.getTotalSeatsRemaining();
+                case 1:
+                    return seats.getCurrentlyRegistered();
+                case 2:
+                    return seats.getGeneralSeatsRemaining();
+                default:
+                    return seats.getRestrictedSeatsRemaining();
+            }
+        }
+    }
+    
+    private static class Head {
+        private long[] times;
+        private int[][] values;
+        private int size;
+        
+        private Head(int capacity) {
+            this.times = new long[capacity];
+            this.values = new int[COUNTERS][capacity];
+        }
+        
+        private void add(long time, SeatInformation seats) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                for (int c = 0; c < COUNTERS; c++) {
+                    values[c] = Arrays.copyOf(values[c], size * 2);
+                }
+            }
+            times[size] = time;
+            for (int c = 0; c < COUNTERS; c++) {
+                values[c][size] = Counter.get(seats, c);
+            }
+            size++;
+        }
+    }
+    
+    // Times are stored as delta-of-deltas and counters as deltas, both run-length encoded
+    private static class Block {
+        private String key;
+        private int count;
+        private long from;
+        private long to;
+        private int[] min = new int[COUNTERS];
+        private int[] max = new int[COUNTERS];
+        private long[] sum = new long[COUNTERS];
+        private int[] last = new int[COUNTERS];
+        private long offset;
+        private int length;
+        
+        private static Block summarize(String key, long[] times, int[][] values, int count) {
+            Block block = new Block();
+            block.key = key;
+            block.count = count;
+            block.from = Long.MAX_VALUE;
+            block.to = Long.MIN_VALUE;
+            for (int i = 0; i < count; i++) {
+                block.from = Math.min(block.from, times[i]);
+                block.to = Math.max(block.to, times[i]);
+            }
+            for (int c = 0; c < COUNTERS; c++) {
+                block.min[c] = Integer.MAX_VALUE;
+                block.max[c] = Integer.MIN_VALUE;
+                for (int i = 0; i < count; i++) {
+                    block.min[c] = Math.min(block.min[c], values[c][i]);
+                    block.max[c] = Math.max(block.max[c], values[c][i]);
+                    block.sum[c] += values[c][i];
+                }
+                block.last[c] = values[c][count - 1];
+            }
+            return block;
+        }
+        
+        private byte[] encode(long[] times, int[][] values) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] name = key.getBytes(StandardCharsets.UTF_8);
+            Varints.write(out, name.length);
+            out.write(name, 0, name.length);
+            Varints.write(out, count);
+            Varints.write(out, Varints.encodeZigZag(from));
+            Varints.write(out, to - from);
+            for (int c = 0; c < COUNTERS; c++) {
+                Varints.write(out, Varints.encodeZigZag(min[c]));
+                Varints.write(out, Varints.encodeZigZag(max[c]));
+                Varints.write(out, Varints.encodeZigZag(sum[c]));
+                Varints.write(out, Varints.encodeZigZag(last[c]));
+            }
+            
+            long[] column = new long[count];
+            long previousDelta = 0;
+            for (int i = 0; i < count; i++) {
+                long delta = i == 0 ? times[0] : times[i] - times[i - 1];
+                column[i] = delta - previousDelta;
+                previousDelta = delta;
+            }
+            writeRuns(out, column, count);
+            for (int c = 0; c < COUNTERS; c++) {
+                for (int i = 0; i < count; i++) {
+                    column[i] = i == 0 ? values[c][0] : (long) values[c][i] - values[c][i - 1];
+                }
+                writeRuns(out, column, count);
+            }
+            return out.toByteArray();
+        }
+        
+        private static Block readHeader(ByteBuffer payload, long offset, int length) {
+            Block block = new Block();
+            byte[] name = new byte[Varints.readInt(payload)];
+            payload.get(name);
+            block.key = new String(name, StandardCharsets.UTF_8);
+            block.count = Varints.readInt(payload);
+            block.from = Varints.decodeZigZag(Varints.read(payload));
+            block.to = block.from + Varints.read(payload);
+            for (int c = 0; c < COUNTERS; c++) {
+                block.min[c] = (int) Varints.decodeZigZag(Varints.read(payload));
+                block.max[c] = (int) Varints.decodeZigZag(Varints.read(payload));
+                block.sum[c] = Varints.decodeZigZag(Varints.read(payload));
+                block.last[c] = (int) Varints.decodeZigZag(Varints.read(payload));
+            }
+            block.offset = offset;
+            block.length = length;
+            return block;
+        }
+        
+        private static void decode(ByteBuffer payload, long[] times, int[][] values) {
+            Block block = readHeader(payload, 0, payload.limit());
+            long[] column = new long[block.count];
+            readRuns(payload, column, block.count);
+            long delta = 0;
+            for (int i = 0; i < block.count; i++) {
+                delta += column[i];
+                times[i] = i == 0 ? delta : times[i - 1] + delta;
+            }
+            for (int c = 0; c < COUNTERS; c++) {
+                readRuns(payload, column, block.count);
+                long value = 0;
+                for (int i = 0; i < block.count; i++) {
+                    value += column[i];
+                    values[c][i] = (int) value;
+                }
+            }
+        }
+        
+        private static void writeRuns(ByteArrayOutputStream out, long[] column, int count) {
+            for (int i = 0; i < count; ) {
+                int run = 1;
+                while (i + run < count && column[i + run] == column[i]) {
+                    run++;
+                }
+                Varints.write(out, Varints.encodeZigZag(column[i]) << 1 | (run > 1 ? 1 : 0));
+                if (run > 1) {
+                    Varints.write(out, run - 2);
+                }
+                i += run;
+            }
+        }
+        
+        private static void readRuns(ByteBuffer payload, long[] column, int count) {
+            for (int i = 0; i < count; ) {
+                long token = Varints.read(payload);
+                long value = Varints.decodeZigZag(token >>> 1);
+                int run = (token & 1) == 0 ? 1 : Varints.readInt(payload) + 2;
+                Arrays.fill(column, i, i + run, value);
+                i += run;
+            }
+        }
+    }
+    
+    public static class Sample {
+        private LocalDateTime time;
+        private SeatInformation seats;
+        
+        private Sample(LocalDateTime time, SeatInformation seats) {
+            this.time = time;
+            this.seats = seats;
+        }
+        
+        public LocalDateTime getTime() {
+            return time;
+        }
+        
+        public SeatInformation getSeats() {
+            return seats;
+        }
+        
+        @Override
+        public String toString() {
+            return time + " " + seats;
+        }
+    }
+    
+    public static class Rollup {
+        private long start;
+        private long count;
+        private int[] min = new int[COUNTERS];
+        private int[] max = new int[COUNTERS];
+        private long[] sum = new long[COUNTERS];
+        private int[] last = new int[COUNTERS];
+        private long lastTime = Long.MIN_VALUE;
+        
+        private Rollup(long start) {
+            this.start = start;
+            Arrays.fill(min, Integer.MAX_VALUE);
+            Arrays.fill(max, Integer.MIN_VALUE);
+        }
+        
+        private void add(long time, int[] values) {
+            for (int c = 0; c < COUNTERS; c++) {
+                min[c] = Math.min(min[c], values[c]);
+                max[c] = Math.max(max[c], values[c]);
+                sum[c] += values[c];
+                if (time >= lastTime) {
+                    last[c] = values[c];
+                }
+            }
+            lastTime = Math.max(lastTime, time);
+            count++;
+        }
+        
+        private void merge(Block block) {
+            for (int c = 0; c < COUNTERS; c++) {
+                min[c] = Math.min(min[c], block.min[c]);
+                max[c] = Math.max(max[c], block.max[c]);
+                sum[c] += block.sum[c];
+                if (block.to >= lastTime) {
+                    last[c] = block.last[c];
+                }
+            }
+            lastTime = Math.max(lastTime, block.to);
+            count += block.count;
+        }
+        
+        public LocalDateTime getStart() {
+            return LocalDateTime.ofEpochSecond(start, 0, ZoneOffset.UTC);
+        }
+        
+        public long getCount() {
+            return count;
+        }
+        
+        public int getMin(Counter counter) {
+            return min[counter.ordinal()];
+        }
+        
+        public int getMax(Counter counter) {
+            return max[counter.ordinal()];
+        }
+        
+        public double getAverage(Counter counter) {
+            return count == 0 ? Double.NaN : (double) sum[counter.ordinal()] / count;
+        }
+        
+        public int getLast(Counter counter) {
+            return last[counter.ordinal()];
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("%s n=%d seats %d..%d (avg %.1f, last %d)", getStart(), count,
+                    getMin(Counter.TOTAL_SEATS_REMAINING), getMax(Counter.TOTAL_SEATS_REMAINING),
+                    getAverage(Counter.TOTAL_SEATS_REMAINING), getLast(Counter.TOTAL_SEATS_REMAINING));
+        }
+    }
+    
+    public static class Builder {
+        private Path location = Paths.get("output", "seats.series");
+        private int blockSize = 1440;
+        private Duration maxAge = Duration.ofHours(6);
+        
+        public Builder location(Path location) {
+            this.location = location;
+            return this;
+        }
+        
+        public Builder blockSize(int blockSize) {
+            if (blockSize < 2) {
+                throw new IllegalArgumentException("Block size must be at least two samples.");
+            }
+            this.blockSize = blockSize;
+            return this;
+        }
+        
+        public Builder maxAge(Duration maxAge) {
+            if (maxAge.toSeconds() < 1) {
+                throw new IllegalArgumentException("Maximum age must be at least one second.");
+            }
+            this.maxAge = maxAge;
+            return this;
+        }
+        
+        public SeatSeries build() {
+            SeatSeries series = new SeatSeries(location, blockSize, maxAge);
+            try {
+                series.load();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return series;
+        }
+    }
+}
@@ -16,6 +16,7 @@ public class Section {
     private String instructor;
     private SeatInformation seats;
     private String url;
+    private volatile Occupancy occupancy;
     
     private Section(String subject, String course, String code, String activity, int term, Map<Time, Location> schedule, String instructor, SeatInformation seats, String url) {
         this.subject = subject;
@@ -77,6 +78,15 @@ public class Section {
         return new ArrayList<>(schedule.values());
     }
     
+    public Occupancy getOccupancy() {
+        Occupancy packed = occupancy;
+        if (packed == null) {
+            packed = schedule == null ? Occupancy.EMPTY : Occupancy.of(schedule.keySet());
+            occupancy = packed;
+        }
+        return packed;
+    }
+    
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -108,61 +118,6 @@ public class Section {
                 instructor + ", " + seats.getTotalSeatsRemaining() + " of " + seats.getTotalSeats() + " seats remaining";
     }
     
-    public String toJSON() {
-        return "{\n" +
-                "\t\"subject\": \"" + subject + "\",\n" +
-                "\t\"course\": \"" + course + "\",\n" +
-                "\t\"code\": \"" + code + "\",\n" +
-                "\t\"activity\": \"" + activity + "\",\n" +
-                "\t\"term\": " + term + ",\n" +
-                "\t\"schedule\": " + schedule.keySet()
-                .stream()
-                .map(k -> "\t\t{\n" +
-                        "\t\t\t\"days\": \"" + String.join(" ", k.getDays()) + "\",\n" +
-                        "\t\t\t\"startHour\": " + k.getStartHour() + ",\n" +
-                        "\t\t\t\"startMinute\": " + k.getStartMinute() + ",\n" +
-                        "\t\t\t\"endHour\": " + k.getEndHour() + ",\n" +
-                        "\t\t\t\"endMinute\": " + k.getEndMinute() + ",\n" +
-                        "\t\t\t\"name\": \"" + schedule.get(k).getName() + "\",\n" +
-                        "\t\t\t\"code\": \"" + schedule.get(k).getCode() + "\",\n" +
-                        "\t\t\t\"room\": \"" + schedule.get(k).getRoom() + "\"\n" +
-                        "\t\t}")
-                .collect(Collectors.joining(",\n", "[\n", "\n\t]")) + ",\n" +
-                "\t\"instructor\": \"" + instructor + "\",\n" +
-                "\t\"seats\": {\n" +
-                "\t\t\"totalSeatsRemaining\": " + seats.getTotalSeatsRemaining() + ",\n" +
-                "\t\t\"currentlyRegistered\": " + seats.getCurrentlyRegistered() + ",\n" +
-                "\t\t\"generalSeatsRemaining\": " + seats.getTotalSeatsRemaining() + ",\n" +
-                "\t\t\"restrictedSeatsRemaining\": " + seats.getTotalSeatsRemaining() + "\n" +
-                "\t},\n" +
-                "\t\"url\": \"" + url + "\"\n" +
-                "}";
-    }
-    
-    public String toCSV() {
-        return "\"" + subject + "\"," +
-                "\"" + course + "\"," +
-                "\"" + code + "\"," +
-                "\"" + activity + "\"," +
-                "\"" + term + "\"," +
-                "\"" + schedule.keySet().stream()
-                .map(k -> String.join(" ", k.getDays()) + "," +
-                        k.getStartHour() + "," +
-                        k.getStartMinute() + "," +
-                        k.getEndHour() + "," +
-                        k.getEndMinute() + "," +
-                        schedule.get(k).getName() + "," +
-                        schedule.get(k).getCode() + "," +
-                        schedule.get(k).getRoom())
-                .collect(Collectors.joining(",")) + "\"," +
-                "\"" + instructor + "\"," +
-                "\"" + seats.getTotalSeatsRemaining() + "," +
-                seats.getCurrentlyRegistered() + "," +
-                seats.getGeneralSeatsRemaining() + "," +
-                seats.getRestrictedSeatsRemaining() + "\"," +
-                "\"" + url + "\"";
-    }
-    
     public static class Builder {
         private String subject;
         private String course;
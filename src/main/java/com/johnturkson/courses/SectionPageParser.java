@@ -0,0 +1,400 @@
+package com.johnturkson.courses;
+
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Flow;
+
+public class SectionPageParser implements HtmlTokenizer.Handler {
+    private static final String[] SEAT_LABELS = {
+            "Total Seats Remaining",
+            "Currently Registered",
+            "General Seats Remaining",
+            "Restricted Seats Remaining"
+    };
+    private HtmlTokenizer tokenizer;
+    private StringBuilder header;
+    private StringBuilder bold;
+    private boolean inHeader;
+    private boolean headerFound;
+    private boolean inBold;
+    private List<StringBuilder> cells;
+    private List<String> buildingCodes;
+    private int cellCount;
+    private boolean inCell;
+    private String subject;
+    private String course;
+    private String code;
+    private String activity;
+    private int term;
+    private Map<Time, Location> schedule;
+    private String instructor;
+    private int[] seats;
+    private int seatsFound;
+    
+    public SectionPageParser() {
+        this.tokenizer = new HtmlTokenizer(this);
+        this.header = new StringBuilder();
+        this.bold = new StringBuilder();
+        this.cells = new ArrayList<>();
+        this.buildingCodes = new ArrayList<>();
+        this.term = -1;
+        this.schedule = new LinkedHashMap<>();
+        this.instructor = "";
+        this.seats = new int[SEAT_LABELS.length];
+    }
+    
+    public static SectionPageParser parse(CharSequence page) {
+        SectionPageParser parser = new SectionPageParser();
+        parser.feed(page);
+        return parser;
+    }
+    
+    public static HttpResponse.BodyHandler<SectionPageParser> bodyHandler() {
+        return info -> HttpResponse.BodySubscribers.fromSubscriber(new BodySubscriber(getCharset(info.headers())),
+                BodySubscriber::getParser);
+    }
+    
+    static Charset getCharset(HttpHeaders headers) {
+        return headers.firstValue("Content-Type")
+                .map(SectionPageParser::getCharset)
+                .orElse(StandardCharsets.UTF_8);
+    }
+    
+    private static Charset getCharset(String contentType) {
+        int index = contentType.toLowerCase().indexOf("charset=");
+        if (index < 0) {
+            return StandardCharsets.UTF_8;
+        }
+        try {
+            return Charset.forName(contentType.substring(index + 8).split(";")[0].replace("\"", "").trim());
+        } catch (IllegalArgumentException e) {
+            return StandardCharsets.UTF_8;
+        }
+    }
+    
+    public void feed(CharSequence text) {
+        tokenizer.feed(text);
+    }
+    
+    public void feed(char[] buffer, int offset, int length) {
+        tokenizer.feed(buffer, offset, length);
+    }
+    
+    public Optional<Section> getSection(String url) {
+        if (!headerFound || term < 0) {
+            return Optional.empty();
+        }
+        
+        return Optional.of(Section.newBuilder()
+                .subject(subject)
+                .course(course)
+                .code(code)
+                .activity(activity)
+                .term(term)
+                .schedule(getSchedule())
+                .instructor(getInstructor())
+                .seats(getSeats())
+                .url(url)
+                .build());
+    }
+    
+    public Map<Time, Location> getSchedule() {
+        return schedule;
+    }
+    
+    public String getInstructor() {
+        return instructor;
+    }
+    
+    public SeatInformation getSeats() {
+        boolean complete = seatsFound == (1 << SEAT_LABELS.length) - 1;
+        return SeatInformation.newBuilder()
+                .totalSeatsRemaining(complete ? seats[0] : 0)
+                .currentlyRegistered(complete ? seats[1] : 0)
+                .generalSeatsRemaining(complete ? seats[2] : 0)
+                .restrictedSeatsRemaining(complete ? seats[3] : 0)
+                .build();
+    }
+    
+    @Override
+    public void startTag(HtmlTokenizer.Tag tag) {
+        if (tag.is("h4") && !headerFound) {
+            inHeader = true;
+            header.setLength(0);
+        } else if (tag.is("b")) {
+            inBold = true;
+            bold.setLength(0);
+        } else if (tag.is("tr")) {
+            cellCount = 0;
+            inCell = false;
+        } else if (tag.is("td")) {
+            StringBuilder cell;
+            if (cellCount < cells.size()) {
+                cell = cells.get(cellCount);
+                cell.setLength(0);
+                buildingCodes.set(cellCount, null);
+            } else {
+                cell = new StringBuilder();
+                cells.add(cell);
+                buildingCodes.add(null);
+            }
+            cellCount++;
+            inCell = true;
+        } else if (tag.is("a") && inCell) {
+            String href = tag.getAttribute("href");
+            int index = href == null ? -1 : href.indexOf("buildingID=");
+            if (index >= 0) {
+                int end = href.indexOf('&', index);
+                buildingCodes.set(cellCount - 1, href.substring(index + 11, end < 0 ? href.length() : end));
+            }
+        }
+    }
+    
+    @Override
+    public void endTag(HtmlTokenizer.Tag tag) {
+        if (tag.is("h4") && inHeader) {
+            inHeader = false;
+            parseHeader();
+        } else if (tag.is("b") && inBold) {
+            inBold = false;
+            parseTerm();
+        } else if (tag.is("td")) {
+            inCell = false;
+        } else if (tag.is("tr")) {
+            parseRow();
+            cellCount = 0;
+            inCell = false;
+        }
+    }
+    
+    @Override
+    public void text(char[] buffer, int offset, int length) {
+        if (inHeader) {
+            header.append(buffer, offset, length);
+        }
+        if (inBold) {
+            bold.append(buffer, offset, length);
+        }
+        if (inCell) {
+            cells.get(cellCount - 1).append(buffer, offset, length);
+        }
+    }
+    
+    private void parseHeader() {
+        String text = header.toString().trim();
+        int open = text.lastIndexOf('(');
+        int close = text.indexOf(')', open);
+        if (open < 0 || close < 0) {
+            return;
+        }
+        
+        String[] parts = text.substring(0, open).trim().split("\\s+", 3);
+        if (parts.length < 3) {
+            return;
+        }
+        
+        subject = parts[0];
+        course = parts[1];
+        code = parts[2];
+        activity = text.substring(open + 1, close);
+        headerFound = true;
+    }
+    
+    private void parseTerm() {
+        if (!headerFound || term >= 0) {
+            return;
+        }
+        
+        String text = bold.toString().trim();
+        if (text.startsWith("Term ")) {
+            int value = parseNumber(text, 5, text.length());
+            if (value >= 0) {
+                term = value;
+            }
+        }
+    }
+    
+    private void parseRow() {
+        if (cellCount >= 2) {
+            StringBuilder label = cells.get(0);
+            if (startsWith(label, "Instructor:") && instructor.isEmpty()) {
+                instructor = cells.get(1).toString().trim();
+                return;
+            }
+            
+            for (int i = 0; i < SEAT_LABELS.length; i++) {
+                if (startsWith(label, SEAT_LABELS[i])) {
+                    StringBuilder value = cells.get(1);
+                    int seatCount = parseNumber(value, 0, value.length());
+                    if (seatCount >= 0) {
+                        seats[i] = seatCount;
+                        seatsFound |= 1 << i;
+                    }
+                    return;
+                }
+            }
+        }
+        
+        for (int i = 0; i + 6 <= cellCount; i++) {
+            if (parseScheduleRow(i)) {
+                return;
+            }
+        }
+    }
+    
+    private boolean parseScheduleRow(int first) {
+        StringBuilder termCell = cells.get(first);
+        int start = parseClock(cells.get(first + 2));
+        int end = parseClock(cells.get(first + 3));
+        if (parseNumber(termCell, 0, termCell.length()) < 0 || start < 0 || end < 0) {
+            return false;
+        }
+        
+        String buildingCode = buildingCodes.get(first + 5);
+        schedule.put(Time.newBuilder()
+                .days(Arrays.asList(cells.get(first + 1).toString().trim().split(" ")))
+                .startHour(start / 60)
+                .startMinute(start % 60)
+                .endHour(end / 60)
+                .endMinute(end % 60)
+                .build(), Location.newBuilder()
+                .name(cells.get(first + 4).toString().trim())
+                .code(buildingCode == null ? "" : buildingCode.trim())
+                .room(cells.get(first + 5).toString().trim())
+                .build());
+        return true;
+    }
+    
+    private static boolean startsWith(CharSequence text, String prefix) {
+        int start = 0;
+        while (start < text.length() && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        if (text.length() - start < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (text.charAt(start + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static int parseClock(CharSequence text) {
+        int colon = -1;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == ':') {
+                colon = i;
+                break;
+            }
+        }
+        if (colon < 1 || colon > 2 || text.length() != colon + 3) {
+            return -1;
+        }
+        
+        int hour = parseNumber(text, 0, colon);
+        int minute = parseNumber(text, colon + 1, text.length());
+        return hour < 0 || hour > 23 || minute < 0 || minute > 59 ? -1 : hour * 60 + minute;
+    }
+    
+    private static int parseNumber(CharSequence text, int start, int end) {
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        if (start == end || end - start > 9) {
+            return -1;
+        }
+        
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+    
+    private static class BodySubscriber implements Flow.Subscriber<List<ByteBuffer>> {
+        private SectionPageParser parser;
+        private CharsetDecoder decoder;
+        private ByteBuffer remainder;
+        private CharBuffer chars;
+        
+        private BodySubscriber(Charset charset) {
+            this.parser = new SectionPageParser();
+            this.decoder = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            this.remainder = ByteBuffer.allocate(0);
+            this.chars = CharBuffer.allocate(8192);
+        }
+        
+        private SectionPageParser getParser() {
+            return parser;
+        }
+        
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+        
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            for (ByteBuffer buffer : buffers) {
+                decode(buffer, false);
+            }
+        }
+        
+        @Override
+        public void onError(Throwable throwable) {
+        }
+        
+        @Override
+        public void onComplete() {
+            decode(ByteBuffer.allocate(0), true);
+            decoder.flush(chars);
+            drain();
+        }
+        
+        private void decode(ByteBuffer buffer, boolean endOfInput) {
+            ByteBuffer input = buffer;
+            if (remainder.hasRemaining()) {
+                input = ByteBuffer.allocate(remainder.remaining() + buffer.remaining());
+                input.put(remainder).put(buffer).flip();
+            }
+            while (true) {
+                if (decoder.decode(input, chars, endOfInput).isOverflow()) {
+                    drain();
+                } else {
+                    break;
+                }
+            }
+            drain();
+            remainder = input.hasRemaining() ? ByteBuffer.allocate(input.remaining()).put(input).flip() : ByteBuffer.allocate(0);
+        }
+        
+        private void drain() {
+            chars.flip();
+            parser.feed(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+            chars.clear();
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.johnturkson.courses;
+
+import java.net.http.HttpResponse;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+public class SectionPublisher implements Flow.Publisher<Section> {
+    private List<String> subjects;
+    private List<String[]> courses;
+    private int prefetch;
+    
+    private SectionPublisher(List<String> subjects, List<String[]> courses, int prefetch) {
+        if (prefetch < 1) {
+            throw new IllegalArgumentException("Prefetch must be at least one section.");
+        }
+        
+        this.subjects = subjects;
+        this.courses = courses;
+        this.prefetch = prefetch;
+    }
+    
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+    
+    @Override
+    public void subscribe(Flow.Subscriber<? super Section> subscriber) {
+        Crawl crawl = new Crawl(subscriber);
+        subscriber.onSubscribe(crawl);
+        crawl.drain();
+    }
+    
+    public CompletableFuture<Void> consume(Consumer<? super Section> consumer) {
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        subscribe(new ConsumerSubscriber(consumer, completion, prefetch));
+        return completion;
+    }
+    
+    private class Crawl implements Flow.Subscription {
+        private Flow.Subscriber<? super Section> subscriber;
+        private Deque<String> pendingSubjects;
+        private Deque<String[]> pendingCourses;
+        private Deque<Map.Entry<Section.Builder, String>> pendingSections;
+        private Deque<Section> ready;
+        private AtomicInteger wip;
+        private long requested;
+        private int inFlight;
+        private boolean cancelled;
+        private boolean terminated;
+        private Throwable error;
+        
+        private Crawl(Flow.Subscriber<? super Section> subscriber) {
+            this.subscriber = subscriber;
+            this.pendingSubjects = new ArrayDeque<>(subjects);
+            this.pendingCourses = new ArrayDeque<>(courses);
+            this.pendingSections = new ArrayDeque<>();
+            this.ready = new ArrayDeque<>();
+            this.wip = new AtomicInteger();
+        }
+        
+        @Override
+        public void request(long n) {
+            synchronized (this) {
+                if (n <= 0) {
+                    error = new IllegalArgumentException("Requested sections must be positive.");
+                } else {
+                    requested = requested + n < 0 ? Long.MAX_VALUE : requested + n;
+                }
+            }
+            drain();
+        }
+        
+        @Override
+        public synchronized void cancel() {
+            cancelled = true;
+            pendingSubjects.clear();
+            pendingCourses.clear();
+            pendingSections.clear();
+            ready.clear();
+        }
+        
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            
+            do {
+                Section section;
+                while ((section = poll()) != null) {
+                    subscriber.onNext(section);
+                }
+                
+                Throwable failure;
+                boolean complete;
+                synchronized (this) {
+                    if (terminated) {
+                        continue;
+                    }
+                    failure = cancelled ? null : error;
+                    complete = !cancelled && failure == null && inFlight == 0 && ready.isEmpty() &&
+                            pendingSubjects.isEmpty() && pendingCourses.isEmpty() && pendingSections.isEmpty();
+                    terminated = cancelled || failure != null || complete;
+                    if (!terminated) {
+                        launch();
+                    }
+                }
+                
+                if (failure != null) {
+                    subscriber.onError(failure);
+                } else if (complete) {
+                    subscriber.onComplete();
+                }
+            } while (wip.decrementAndGet() != 0);
+        }
+        
+        private synchronized Section poll() {
+            if (terminated || cancelled || error != null || requested == 0 || ready.isEmpty()) {
+                return null;
+            }
+            if (requested != Long.MAX_VALUE) {
+                requested--;
+            }
+            return ready.poll();
+        }
+        
+        private void launch() {
+            while (inFlight + ready.size() < Math.min(requested, prefetch)) {
+                if (!pendingSections.isEmpty()) {
+                    fetchSection(pendingSections.poll());
+                } else if (!pendingCourses.isEmpty()) {
+                    fetchListings(pendingCourses.poll());
+                } else if (!pendingSubjects.isEmpty()) {
+                    fetchCourses(pendingSubjects.poll());
+                } else {
+                    return;
+                }
+            }
+        }
+        
+        private void fetchCourses(String subject) {
+            fetch(() -> Courses.getCourseCodes(subject),
+                    codes -> codes.forEach(code -> pendingCourses.add(new String[]{subject, code})));
+        }
+        
+        private void fetchListings(String[] course) {
+            fetch(() -> Sections.getSectionListings(course[0], course[1]),
+                    listings -> pendingSections.addAll(listings.entrySet()));
+        }
+        
+        private void fetchSection(Map.Entry<Section.Builder, String> listing) {
+            fetch(() -> Transport.getDefault()
+                            .fetch(listing.getValue(), SectionPageParser.bodyHandler())
+                            .thenApply(HttpResponse::body),
+                    details -> ready.add(listing.getKey()
+                            .schedule(details.getSchedule())
+                            .instructor(details.getInstructor())
+                            .seats(details.getSeats())
+                            .build()));
+        }
+        
+        private <T> void fetch(Supplier<CompletableFuture<T>> request, Consumer<T> onSuccess) {
+            inFlight++;
+            CompletableFuture<T> response;
+            try {
+                response = request.get();
+            } catch (RuntimeException e) {
+                response = CompletableFuture.failedFuture(e);
+            }
+            response.whenComplete((result, e) -> {
+                synchronized (this) {
+                    inFlight--;
+                    if (e != null) {
+                        fail(e);
+                    } else if (!cancelled) {
+                        onSuccess.accept(result);
+                    }
+                }
+                drain();
+            });
+        }
+        
+        private void fail(Throwable e) {
+            if (error == null) {
+                error = e;
+            }
+        }
+    }
+    
+    private static class ConsumerSubscriber implements Flow.Subscriber<Section> {
+        private Consumer<? super Section> consumer;
+        private CompletableFuture<Void> completion;
+        private int prefetch;
+        private Flow.Subscription subscription;
+        
+        private ConsumerSubscriber(Consumer<? super Section> consumer, CompletableFuture<Void> completion, int prefetch) {
+            this.consumer = consumer;
+            this.completion = completion;
+            this.prefetch = prefetch;
+        }
+        
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(prefetch);
+        }
+        
+        @Override
+        public void onNext(Section section) {
+            try {
+                consumer.accept(section);
+                subscription.request(1);
+            } catch (RuntimeException e) {
+                subscription.cancel();
+                completion.completeExceptionally(e);
+            }
+        }
+        
+        @Override
+        public void onError(Throwable throwable) {
+            completion.completeExceptionally(throwable);
+        }
+        
+        @Override
+        public void onComplete() {
+            completion.complete(null);
+        }
+    }
+    
+    public static class Builder {
+        private List<String> subjects = new ArrayList<>();
+        private List<String[]> courses = new ArrayList<>();
+        private int prefetch = 32;
+        
+        public Builder subjects(List<String> subjects) {
+            this.subjects.addAll(subjects);
+            return this;
+        }
+        
+        public Builder subject(String subject) {
+            subjects.add(subject.trim());
+            return this;
+        }
+        
+        public Builder course(String subject, String course) {
+            courses.add(new String[]{subject.trim(), course.trim()});
+            return this;
+        }
+        
+        public Builder prefetch(int prefetch) {
+            this.prefetch = prefetch;
+            return this;
+        }
+        
+        public SectionPublisher build() {
+            return new SectionPublisher(new ArrayList<>(subjects), new ArrayList<>(courses), prefetch);
+        }
+    }
+}
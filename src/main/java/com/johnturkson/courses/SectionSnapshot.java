@@ -0,0 +1,232 @@
+package com.johnturkson.courses;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class SectionSnapshot {
+    private static final int MAGIC = 0x53454353;
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private ByteBuffer buffer;
+    private int sectionCount;
+    private int stringCount;
+    private int stringsOffset;
+    private int indexOffset;
+    private int recordsOffset;
+    private String[] strings;
+    private Map<String, Integer> ids;
+    
+    private SectionSnapshot(ByteBuffer buffer) {
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a section snapshot.");
+        }
+        if (buffer.getShort(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported section snapshot version " + buffer.getShort(4) + ".");
+        }
+        
+        this.buffer = buffer;
+        this.sectionCount = buffer.getInt(8);
+        this.stringCount = buffer.getInt(12);
+        this.stringsOffset = buffer.getInt(16);
+        this.indexOffset = buffer.getInt(20);
+        this.recordsOffset = buffer.getInt(24);
+        this.strings = new String[stringCount];
+    }
+    
+    public static SectionSnapshot open(Path location) {
+        try (FileChannel channel = FileChannel.open(location, StandardOpenOption.READ)) {
+            return new SectionSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    public static void write(List<Section> sections, Path location) {
+        List<Section> distinct = new ArrayList<>(new LinkedHashSet<>(sections));
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        int[] offsets = new int[distinct.size()];
+        
+        for (int i = 0; i < distinct.size(); i++) {
+            Section section = distinct.get(i);
+            offsets[i] = records.size();
+            writeString(records, dictionary, section.getSubject());
+            writeString(records, dictionary, section.getCourse());
+            writeString(records, dictionary, section.getCode());
+            writeString(records, dictionary, section.getActivity());
+            Varints.write(records, section.getTerm());
+            writeString(records, dictionary, section.getInstructor());
+            writeString(records, dictionary, section.getUrl());
+            Varints.write(records, section.getSeats().getTotalSeatsRemaining());
+            Varints.write(records, section.getSeats().getCurrentlyRegistered());
+            Varints.write(records, section.getSeats().getGeneralSeatsRemaining());
+            Varints.write(records, section.getSeats().getRestrictedSeatsRemaining());
+            Varints.write(records, section.getSchedule().size());
+            for (Map.Entry<Time, Location> entry : section.getSchedule().entrySet()) {
+                Time time = entry.getKey();
+                writeString(records, dictionary, String.join(" ", time.getDays()));
+                Varints.write(records, time.getStartHour() * 60 + time.getStartMinute());
+                Varints.write(records, time.getEndHour() * 60 + time.getEndMinute());
+                writeString(records, dictionary, entry.getValue().getName());
+                writeString(records, dictionary, entry.getValue().getCode());
+                writeString(records, dictionary, entry.getValue().getRoom());
+            }
+        }
+        
+        List<byte[]> encoded = new ArrayList<>();
+        int stringBytes = 0;
+        for (String value : dictionary.keySet()) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            stringBytes += bytes.length;
+        }
+        
+        int stringsOffset = HEADER_SIZE;
+        int indexOffset = stringsOffset + 4 * (encoded.size() + 1) + stringBytes;
+        int recordsOffset = indexOffset + 4 * offsets.length;
+        ByteBuffer output = ByteBuffer.allocate(recordsOffset + records.size());
+        output.putInt(MAGIC)
+                .putShort(VERSION)
+                .putShort((short) 0)
+                .putInt(distinct.size())
+                .putInt(encoded.size())
+                .putInt(stringsOffset)
+                .putInt(indexOffset)
+                .putInt(recordsOffset)
+                .putInt(0);
+        
+        int stringOffset = 0;
+        for (byte[] bytes : encoded) {
+            output.putInt(stringOffset);
+            stringOffset += bytes.length;
+        }
+        output.putInt(stringOffset);
+        encoded.forEach(output::put);
+        for (int offset : offsets) {
+            output.putInt(offset);
+        }
+        output.put(records.toByteArray()).flip();
+        
+        try (FileChannel channel = FileChannel.open(location, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (output.hasRemaining()) {
+                channel.write(output);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private static void writeString(ByteArrayOutputStream out, Map<String, Integer> dictionary, String value) {
+        Varints.write(out, dictionary.computeIfAbsent(value == null ? "" : value, k -> dictionary.size()));
+    }
+    
+    public int size() {
+        return sectionCount;
+    }
+    
+    public Section get(int id) {
+        if (id < 0 || id >= sectionCount) {
+            throw new IndexOutOfBoundsException("Section " + id + " is not in this snapshot of " + sectionCount + ".");
+        }
+        
+        ByteBuffer record = buffer.duplicate();
+        record.position(recordsOffset + buffer.getInt(indexOffset + 4 * id));
+        Section.Builder builder = Section.newBuilder()
+                .subject(readString(record))
+                .course(readString(record))
+                .code(readString(record))
+                .activity(readString(record))
+                .term(Varints.readInt(record))
+                .instructor(readString(record))
+                .url(readString(record))
+                .seats(SeatInformation.newBuilder()
+                        .totalSeatsRemaining(Varints.readInt(record))
+                        .currentlyRegistered(Varints.readInt(record))
+                        .generalSeatsRemaining(Varints.readInt(record))
+                        .restrictedSeatsRemaining(Varints.readInt(record))
+                        .build());
+        
+        int entries = Varints.readInt(record);
+        Map<Time, Location> schedule = new LinkedHashMap<>();
+        for (int i = 0; i < entries; i++) {
+            String days = readString(record);
+            int start = Varints.readInt(record);
+            int end = Varints.readInt(record);
+            schedule.put(Time.newBuilder()
+                    .days(Arrays.asList(days.split(" ")))
+                    .startHour(start / 60)
+                    .startMinute(start % 60)
+                    .endHour(end / 60)
+                    .endMinute(end % 60)
+                    .build(), Location.newBuilder()
+                    .name(readString(record))
+                    .code(readString(record))
+                    .room(readString(record))
+                    .build());
+        }
+        return builder.schedule(schedule).build();
+    }
+    
+    public Optional<Section> find(String subject, String course, String code) {
+        synchronized (this) {
+            if (ids == null) {
+                Map<String, Integer> keys = new HashMap<>();
+                for (int i = 0; i < sectionCount; i++) {
+                    ByteBuffer record = buffer.duplicate();
+                    record.position(recordsOffset + buffer.getInt(indexOffset + 4 * i));
+                    keys.putIfAbsent(readString(record) + " " + readString(record) + " " + readString(record), i);
+                }
+                ids = keys;
+            }
+        }
+        
+        Integer id = ids.get(subject.trim() + " " + course.trim() + " " + code.trim());
+        return id == null ? Optional.empty() : Optional.of(get(id));
+    }
+    
+    public List<Section> getSections() {
+        return new AbstractList<>() {
+            @Override
+            public Section get(int index) {
+                return SectionSnapshot.this.get(index);
+            }
+            
+            @Override
+            public int size() {
+                return sectionCount;
+            }
+        };
+    }
+    
+    private String readString(ByteBuffer record) {
+        int id = Varints.readInt(record);
+        String value = strings[id];
+        if (value == null) {
+            int start = buffer.getInt(stringsOffset + 4 * id);
+            int end = buffer.getInt(stringsOffset + 4 * (id + 1));
+            byte[] bytes = new byte[end - start];
+            ByteBuffer data = buffer.duplicate();
+            data.position(stringsOffset + 4 * (stringCount + 1) + start);
+            data.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            strings[id] = value;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,79 @@
+package com.johnturkson.courses;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+final class SectionState {
+    static final int INSTRUCTOR = 1;
+    static final int TOTAL_SEATS_REMAINING = 1 << 1;
+    static final int CURRENTLY_REGISTERED = 1 << 2;
+    static final int GENERAL_SEATS_REMAINING = 1 << 3;
+    static final int RESTRICTED_SEATS_REMAINING = 1 << 4;
+    static final int SCHEDULE = 1 << 5;
+    private static final Map<String, Integer> INSTRUCTORS = new ConcurrentHashMap<>();
+    private static final AtomicInteger NEXT_INSTRUCTOR = new AtomicInteger();
+    private final int instructor;
+    private final int totalSeatsRemaining;
+    private final int currentlyRegistered;
+    private final int generalSeatsRemaining;
+    private final int restrictedSeatsRemaining;
+    private final long schedule;
+    
+    private SectionState(Section section) {
+        SeatInformation seats = section.getSeats();
+        this.instructor = getInstructorId(section.getInstructor());
+        this.totalSeatsRemaining = seats.getTotalSeatsRemaining();
+        this.currentlyRegistered = seats.getCurrentlyRegistered();
+        this.generalSeatsRemaining = seats.getGeneralSeatsRemaining();
+        this.restrictedSeatsRemaining = seats.getRestrictedSeatsRemaining();
+        this.schedule = getScheduleHash(section.getSchedule());
+    }
+    
+    static SectionState of(Section section) {
+        return new SectionState(section);
+    }
+    
+    static int diff(Section oldSection, Section newSection) {
+        return of(oldSection).diff(newSection);
+    }
+    
+    int diff(Section section) {
+        SeatInformation seats = section.getSeats();
+        int changed = 0;
+        if (instructor != getInstructorId(section.getInstructor())) {
+            changed |= INSTRUCTOR;
+        }
+        if (totalSeatsRemaining != seats.getTotalSeatsRemaining()) {
+            changed |= TOTAL_SEATS_REMAINING;
+        }
+        if (currentlyRegistered != seats.getCurrentlyRegistered()) {
+            changed |= CURRENTLY_REGISTERED;
+        }
+        if (generalSeatsRemaining != seats.getGeneralSeatsRemaining()) {
+            changed |= GENERAL_SEATS_REMAINING;
+        }
+        if (restrictedSeatsRemaining != seats.getRestrictedSeatsRemaining()) {
+            changed |= RESTRICTED_SEATS_REMAINING;
+        }
+        if (schedule != getScheduleHash(section.getSchedule())) {
+            changed |= SCHEDULE;
+        }
+        return changed;
+    }
+    
+    private static int getInstructorId(String instructor) {
+        String name = instructor == null ? "" : instructor;
+        Integer id = INSTRUCTORS.get(name);
+        return id != null ? id : INSTRUCTORS.computeIfAbsent(name, k -> NEXT_INSTRUCTOR.getAndIncrement());
+    }
+    
+    private static long getScheduleHash(Map<Time, Location> schedule) {
+        long hash = 0xcbf29ce484222325L;
+        for (Map.Entry<Time, Location> entry : schedule.entrySet()) {
+            hash = (hash ^ entry.getKey().hashCode()) * 0x100000001b3L;
+            hash = (hash ^ entry.getValue().hashCode()) * 0x100000001b3L;
+        }
+        return hash;
+    }
+}
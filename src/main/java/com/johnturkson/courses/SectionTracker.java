@@ -1,36 +1,64 @@
 package com.johnturkson.courses;
 
-import java.io.IOException;
-import java.io.UncheckedIOException;
-import java.nio.file.Files;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.FormatStyle;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class SectionTracker {
-    private List<Section> trackedSections;
+    private static final byte[] HEADING = "<h4".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] RESTRICTED_SEATS_LABEL = "Restricted Seats Remaining".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ROW_END = "</tr>".getBytes(StandardCharsets.US_ASCII);
+    private static final int[] CHANGE_FIELDS = {SectionState.INSTRUCTOR, SectionState.TOTAL_SEATS_REMAINING,
+            SectionState.CURRENTLY_REGISTERED, SectionState.GENERAL_SEATS_REMAINING,
+            SectionState.RESTRICTED_SEATS_REMAINING, SectionState.SCHEDULE};
+    private volatile List<Section> trackedSections;
     private Map<LocalDateTime, Map<Section, List<Change>>> pastChanges;
+    private Map<String, PollState> pollStates;
     private ScheduledExecutorService updater;
     private boolean trackingPaused;
-    private boolean printOnUpdate;
-    private boolean exportOnUpdate;
-    private Path exportPath;
+    private ChangeBus.Subscription console;
+    private ChangeBus.Subscription export;
+    private volatile Path exportPath;
+    private boolean batchUpdates;
+    private int fullRefreshInterval;
+    private long cycles;
+    private PollingScheduler scheduler;
+    private ExecutionMode executionMode;
+    private ChangeBus changeBus;
+    private ChangeLog changeLog;
+    private SeatSeries seatSeries;
+    private Rule rule;
     
-    private SectionTracker(List<Section> trackedSections) {
-        this.trackedSections = trackedSections.stream().distinct().collect(Collectors.toList());
+    private SectionTracker(List<Section> trackedSections, ExecutionMode executionMode, ChangeBus changeBus,
+                           ChangeLog changeLog, SeatSeries seatSeries, Rule rule) {
+        if (!executionMode.isSupported()) {
+            throw new UnsupportedOperationException(executionMode.getName() + " execution is not supported by this runtime.");
+        }
+        
+        this.trackedSections = trackedSections.stream().distinct().filter(rule::test).collect(Collectors.toList());
         this.pastChanges = new LinkedHashMap<>();
+        this.pollStates = new ConcurrentHashMap<>();
         this.updater = Executors.newScheduledThreadPool(10);
         this.trackingPaused = false;
-        this.printOnUpdate = false;
+        this.batchUpdates = false;
+        this.fullRefreshInterval = 12;
+        this.executionMode = executionMode;
+        this.changeBus = changeBus;
+        this.changeLog = changeLog;
+        this.seatSeries = seatSeries;
+        this.rule = rule;
     }
     
     public static Builder newBuilder() {
@@ -42,25 +70,89 @@ public class SectionTracker {
     }
     
     public Map<LocalDateTime, Map<Section, List<Change>>> getPastChanges() {
-        return pastChanges;
+        if (changeLog == null) {
+            return pastChanges;
+        }
+        
+        Map<LocalDateTime, Map<Section, List<Change>>> changes = new LinkedHashMap<>();
+        for (Change change : changeLog.getChanges(LocalDateTime.MIN, LocalDateTime.MAX)) {
+            changes.computeIfAbsent(change.getTime(), k -> new LinkedHashMap<>())
+                    .computeIfAbsent(change.getSection(), k -> new ArrayList<>())
+                    .add(change);
+        }
+        return changes;
+    }
+    
+    public ChangeBus getChangeBus() {
+        return changeBus;
+    }
+    
+    public Optional<ChangeLog> getChangeLog() {
+        return Optional.ofNullable(changeLog);
+    }
+    
+    public Optional<SeatSeries> getSeatSeries() {
+        return Optional.ofNullable(seatSeries);
     }
     
     public void clearPastChanges() {
+        if (changeLog != null) {
+            changeLog.clear();
+        }
         pastChanges.clear();
     }
     
-    public void printUpdates(boolean isEnabled) {
-        printOnUpdate = isEnabled;
+    public synchronized void printUpdates(boolean isEnabled) {
+        if (isEnabled && console == null) {
+            console = changeBus.subscribe("console", ChangeBus.console());
+        } else if (!isEnabled && console != null) {
+            console.cancel();
+            console = null;
+        }
     }
     
-    public void exportUpdates(boolean isEnabled) {
-        exportOnUpdate = isEnabled;
+    public synchronized void exportUpdates(boolean isEnabled) {
+        if (isEnabled && export == null) {
+            export = changeBus.subscribe("export", ChangeBus.file(() -> exportPath));
+        } else if (!isEnabled && export != null) {
+            export.cancel();
+            export = null;
+        }
     }
     
     public void exportTo(Path exportPath) {
         this.exportPath = exportPath;
     }
     
+    public ChangeBus.Subscription onUpdate(Consumer<Map<Section, List<Change>>> listener) {
+        return changeBus.subscribe("listener", events -> events.stream()
+                .map(ChangeBus.Event::getUpdates)
+                .filter(u -> !u.isEmpty())
+                .forEach(listener));
+    }
+    
+    public void batchUpdates(boolean isEnabled) {
+        batchUpdates = isEnabled;
+    }
+    
+    public void fullRefreshInterval(int cycles) {
+        if (cycles < 1) {
+            throw new IllegalArgumentException("Full refresh interval must be at least one cycle.");
+        }
+        fullRefreshInterval = cycles;
+    }
+    
+    public synchronized void track(Section section) {
+        if (rule.test(section) && !trackedSections.contains(section)) {
+            List<Section> sections = new ArrayList<>(trackedSections);
+            sections.add(section);
+            trackedSections = sections;
+            if (scheduler != null) {
+                scheduler.add(section);
+            }
+        }
+    }
+    
     public void startTracking(Duration interval) {
         startTracking(interval, Duration.ZERO);
     }
@@ -77,41 +169,43 @@ public class SectionTracker {
                 TimeUnit.SECONDS);
     }
     
+    public void startTracking(PollingScheduler scheduler) {
+        trackingPaused = false;
+        this.scheduler = scheduler;
+        trackedSections.forEach(scheduler::add);
+        updater.execute(this::poll);
+    }
+    
     public void stopTracking() {
         trackingPaused = true;
+        if (seatSeries != null) {
+            seatSeries.flush();
+        }
+    }
+    
+    private void poll() {
+        if (trackingPaused) {
+            return;
+        }
+        
+        for (Section section : scheduler.pollDue(LocalDateTime.now())) {
+            checkForUpdates(section).whenComplete((updates, e) -> {
+                Section current = updates != null && !updates.isEmpty() ? updates.keySet().iterator().next() : section;
+                scheduler.record(current, updates != null && !updates.isEmpty(), LocalDateTime.now());
+            });
+        }
+        
+        long delay = scheduler.getNextPollTime()
+                .map(t -> Duration.between(LocalDateTime.now(), t).toMillis())
+                .orElse(1000L);
+        updater.schedule(this::poll, Math.max(10, Math.min(1000, delay)), TimeUnit.MILLISECONDS);
     }
     
     public void update() {
         if (!trackingPaused) {
             Map<Section, List<Change>> updates = checkForUpdates();
-            if (printOnUpdate) {
-                if (!updates.values().isEmpty()) {
-                    updates.values().forEach(c -> c.forEach(System.out::println));
-                } else {
-                    System.out.println("[" + LocalDateTime.now().format(DateTimeFormatter.ofLocalizedDateTime(FormatStyle.SHORT)) + "]" + " No changes.");
-                    try {
-                        Files.writeString(exportPath, "[" + LocalDateTime.now().format(DateTimeFormatter.ofLocalizedDateTime(FormatStyle.SHORT)) + "]" + " No changes.\n", StandardOpenOption.APPEND);
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                    }
-                }
-            }
-            if (exportOnUpdate) {
-                if (exportPath != null) {
-                    for (List<Change> changes : updates.values()) {
-                        for (Change c : changes) {
-                            try {
-                                Files.writeString(exportPath,
-                                        c.toString() + "\n",
-                                        StandardOpenOption.APPEND);
-                            } catch (IOException e) {
-                                throw new UncheckedIOException(e);
-                            }
-                        }
-                    }
-                } else {
-                    throw new IllegalStateException("Export path is not set.");
-                }
+            if (updates.isEmpty()) {
+                changeBus.publish(new ChangeBus.Event(LocalDateTime.now(), Map.of()));
             }
         }
     }
@@ -119,113 +213,332 @@ public class SectionTracker {
     public Map<Section, List<Change>> checkForUpdates() {
         LocalDateTime time = LocalDateTime.now();
         Map<Section, List<Change>> updates = new LinkedHashMap<>();
-        Map<Section, CompletableFuture<Optional<Section>>> futures = new LinkedHashMap<>();
+        Map<Section, PollState> states = new LinkedHashMap<>();
+        Map<Section, CompletableFuture<Optional<Section>>> futures = new HashMap<>();
         
-        for (Section section : trackedSections) {
-            futures.put(section, CompletableFuture.supplyAsync(() -> Sections.getSection(
-                    section.getSubject(),
-                    section.getCourse(),
-                    section.getCode())));
+        if (batchUpdates && ++cycles % fullRefreshInterval != 0) {
+            Map<String, CompletableFuture<Map<String, String>>> statuses = new HashMap<>();
+            for (Section section : trackedSections) {
+                PollState state = getPollState(section);
+                CompletableFuture<Map<String, String>> courseStatuses = statuses.computeIfAbsent(
+                        section.getSubject() + " " + section.getCourse(),
+                        k -> Sections.getSectionStatuses(section.getSubject(), section.getCourse()));
+                states.put(section, state);
+                futures.put(section, courseStatuses
+                        .exceptionally(e -> Map.of())
+                        .thenCompose(s -> fetchIfStatusChanged(section, state, s.get(section.getCode()))));
+            }
+        } else {
+            for (Section section : trackedSections) {
+                PollState state = getPollState(section);
+                states.put(section, state);
+                futures.put(section, fetchIfModified(section, state));
+            }
         }
         
-        for (Section section : futures.keySet()) {
+        for (Map.Entry<Section, PollState> entry : states.entrySet()) {
+            Section section = entry.getKey();
             Optional<Section> updated = futures.get(section)
                     .exceptionally(e -> Optional.empty())
                     .join();
             if (updated.isPresent()) {
-                List<Change> changes = getChangesBetweenSections(section, updated.get());
-                if (!changes.isEmpty()) {
-                    updates.put(updated.get(), changes);
+                int changed = diff(entry.getValue(), section, updated.get());
+                if (changed != 0) {
+                    updates.put(updated.get(), getChanges(time, section, updated.get(), changed));
                 }
             }
         }
         
-        if (!updates.keySet().isEmpty()) {
-            pastChanges.put(time, updates);
+        applyUpdates(time, updates);
+        return updates;
+    }
+    
+    public CompletableFuture<Map<Section, List<Change>>> checkForUpdates(Section section) {
+        LocalDateTime time = LocalDateTime.now();
+        PollState state = getPollState(section);
+        return fetchIfModified(section, state)
+                .exceptionally(e -> Optional.empty())
+                .thenApply(updated -> {
+                    Map<Section, List<Change>> updates = new LinkedHashMap<>();
+                    if (updated.isPresent()) {
+                        int changed = diff(state, section, updated.get());
+                        if (changed != 0) {
+                            updates.put(updated.get(), getChanges(time, section, updated.get(), changed));
+                        }
+                    }
+                    applyUpdates(time, updates);
+                    return updates;
+                });
+    }
+    
+    private synchronized void applyUpdates(LocalDateTime time, Map<Section, List<Change>> updates) {
+        if (updates.isEmpty()) {
+            return;
         }
         
-        // Update tracked sections
-        trackedSections = trackedSections.stream()
-                .filter(s -> !updates.keySet().contains(s))
-                .collect(Collectors.toList());
-        trackedSections.addAll(updates.keySet());
+        if (changeLog != null) {
+            changeLog.append(updates);
+        } else {
+            pastChanges.merge(time, updates, (a, b) -> {
+                Map<Section, List<Change>> merged = new LinkedHashMap<>(a);
+                merged.putAll(b);
+                return merged;
+            });
+        }
+        changeBus.publish(new ChangeBus.Event(time, updates));
         
-        return updates;
+        // Replace updated sections in place, matching on subject, course and code since the url of a
+        // refreshed section is the query url and may differ from the one it was first tracked with
+        Map<String, Section> replacements = new HashMap<>();
+        updates.keySet().forEach(s -> replacements.put(getKey(s), s));
+        List<Section> sections = new ArrayList<>(trackedSections.size());
+        for (Section section : trackedSections) {
+            sections.add(replacements.getOrDefault(getKey(section), section));
+        }
+        trackedSections = sections;
     }
     
-    public List<Change> getChangesBetweenSections(Section oldSection, Section newSection) {
-        List<Change> changes = new ArrayList<>();
-        if (!oldSection.getInstructor().equals(newSection.getInstructor())) {
-            changes.add(Change.newBuilder()
-                    .time(LocalDateTime.now())
-                    .section(oldSection)
-                    .field("Instructor")
-                    .oldValue(oldSection.getInstructor())
-                    .newValue(newSection.getInstructor())
-                    .build());
+    private static String getKey(Section section) {
+        return section.getSubject().trim() + " " + section.getCourse().trim() + " " + section.getCode().trim();
+    }
+    
+    private PollState getPollState(Section section) {
+        String query = Sections.getSectionQuery(section.getSubject(), section.getCourse(), section.getCode());
+        return pollStates.computeIfAbsent(query, PollState::new);
+    }
+    
+    // Compares against the state cached from the last poll, and only builds a new state when something changed
+    private int diff(PollState state, Section oldSection, Section newSection) {
+        SectionState previous = state.section;
+        if (previous == null) {
+            previous = SectionState.of(oldSection);
+            state.section = previous;
+        }
+        int changed = previous.diff(newSection);
+        if (changed != 0) {
+            state.section = SectionState.of(newSection);
+        }
+        return changed;
+    }
+    
+    private CompletableFuture<Optional<Section>> fetchIfStatusChanged(Section section, PollState state, String status) {
+        String previous = state.status;
+        state.status = status;
+        if (status != null && status.equals(previous)) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return fetchIfModified(section, state);
+    }
+    
+    private CompletableFuture<Optional<Section>> fetchIfModified(Section section, PollState state) {
+        String query = state.query;
+        CompletableFuture<Optional<Section>> updated;
+        if (executionMode == ExecutionMode.VIRTUAL) {
+            updated = CompletableFuture.supplyAsync(() -> parseIfModified(query, state, fetch(query, state).join()),
+                    executionMode.getExecutor());
+        } else {
+            updated = fetch(query, state).thenApply(response -> parseIfModified(query, state, response));
+        }
+        if (seatSeries != null) {
+            updated = updated.thenApply(u -> {
+                seatSeries.record(u.orElse(section), LocalDateTime.now());
+                return u;
+            });
+        }
+        return updated;
+    }
+    
+    private CompletableFuture<HttpResponse<byte[]>> fetch(String query, PollState state) {
+        Map<String, String> headers = new HashMap<>();
+        if (state.entityTag != null) {
+            headers.put("If-None-Match", state.entityTag);
+        }
+        if (state.lastModified != null) {
+            headers.put("If-Modified-Since", state.lastModified);
         }
         
-        if (oldSection.getSeats().getTotalSeatsRemaining() != newSection.getSeats().getTotalSeatsRemaining()) {
-            changes.add(Change.newBuilder()
-                    .time(LocalDateTime.now())
-                    .section(oldSection)
-                    .field("Total Seats Remaining")
-                    .oldValue(Integer.toString(oldSection.getSeats().getTotalSeatsRemaining()))
-                    .newValue(Integer.toString(newSection.getSeats().getTotalSeatsRemaining()))
-                    .build());
+        return Transport.getDefault().fetch(query, headers, HttpResponse.BodyHandlers.ofByteArray());
+    }
+    
+    private Optional<Section> parseIfModified(String query, PollState state, HttpResponse<byte[]> response) {
+        if (response.statusCode() == 304) {
+            return Optional.empty();
         }
         
-        if (oldSection.getSeats().getCurrentlyRegistered() != newSection.getSeats().getCurrentlyRegistered()) {
-            changes.add(Change.newBuilder()
-                    .time(LocalDateTime.now())
-                    .section(oldSection)
-                    .field("Currently Registered")
-                    .oldValue(Integer.toString(oldSection.getSeats().getCurrentlyRegistered()))
-                    .newValue(Integer.toString(newSection.getSeats().getCurrentlyRegistered()))
-                    .build());
+        state.entityTag = response.headers().firstValue("ETag").orElse(null);
+        state.lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+        long fingerprint = getFingerprint(response.body());
+        if (state.hasFingerprint && state.fingerprint == fingerprint) {
+            return Optional.empty();
         }
         
-        if (oldSection.getSeats().getGeneralSeatsRemaining() != newSection.getSeats().getGeneralSeatsRemaining()) {
-            changes.add(Change.newBuilder()
-                    .time(LocalDateTime.now())
-                    .section(oldSection)
-                    .field("General Seats Remaining")
-                    .oldValue(Integer.toString(oldSection.getSeats().getGeneralSeatsRemaining()))
-                    .newValue(Integer.toString(newSection.getSeats().getGeneralSeatsRemaining()))
-                    .build());
+        Optional<Section> updated = SectionPageParser.parse(new String(response.body(),
+                SectionPageParser.getCharset(response.headers())))
+                .getSection(query);
+        if (updated.isPresent()) {
+            state.fingerprint = fingerprint;
+            state.hasFingerprint = true;
+        }
+        return updated;
+    }
+    
+    private static long getFingerprint(byte[] page) {
+        // Hashes from the section heading through the seat rows, which covers the schedule table between them
+        int start = indexOf(page, HEADING, 0);
+        int end = indexOf(page, RESTRICTED_SEATS_LABEL, Math.max(start, 0));
+        end = end < 0 ? -1 : indexOf(page, ROW_END, end);
+        if (start < 0 || end < 0) {
+            start = 0;
+            end = page.length;
         }
         
-        if (oldSection.getSeats().getRestrictedSeatsRemaining() != newSection.getSeats().getRestrictedSeatsRemaining()) {
-            changes.add(Change.newBuilder()
-                    .time(LocalDateTime.now())
-                    .section(oldSection)
-                    .field("Restricted Seats Remaining")
-                    .oldValue(Integer.toString(oldSection.getSeats().getRestrictedSeatsRemaining()))
-                    .newValue(Integer.toString(newSection.getSeats().getRestrictedSeatsRemaining()))
-                    .build());
+        long hash = 0xcbf29ce484222325L;
+        for (int i = start; i < end; i++) {
+            hash ^= page[i];
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+    
+    private static int indexOf(byte[] page, byte[] target, int from) {
+        outer:
+        for (int i = from; i <= page.length - target.length; i++) {
+            for (int j = 0; j < target.length; j++) {
+                if (page[i + j] != target[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+    
+    public List<Change> getChangesBetweenSections(Section oldSection, Section newSection) {
+        return getChanges(LocalDateTime.now(), oldSection, newSection, SectionState.diff(oldSection, newSection));
+    }
+    
+    // Changes are built before they are published, since subscribers read them from other threads
+    private static List<Change> getChanges(LocalDateTime time, Section oldSection, Section newSection, int changed) {
+        Change[] changes = new Change[Integer.bitCount(changed)];
+        int i = 0;
+        for (int field : CHANGE_FIELDS) {
+            if ((changed & field) != 0) {
+                changes[i++] = getChange(time, oldSection, newSection, field);
+            }
+        }
+        return List.of(changes);
+    }
+    
+    private static Change getChange(LocalDateTime time, Section oldSection, Section newSection, int field) {
+        Change.Builder change = Change.newBuilder()
+                .time(time)
+                .section(oldSection);
+        SeatInformation oldSeats = oldSection.getSeats();
+        SeatInformation newSeats = newSection.getSeats();
+        switch (field) {
+            case SectionState.INSTRUCTOR:
+                return change.field("Instructor")
+                        .oldValue(oldSection.getInstructor())
+                        .newValue(newSection.getInstructor())
+                        .build();
+            case SectionState.TOTAL_SEATS_REMAINING:
+                return change.field("Total Seats Remaining")
+                        .oldValue(Integer.toString(oldSeats.getTotalSeatsRemaining()))
+                        .newValue(Integer.toString(newSeats.getTotalSeatsRemaining()))
+                        .build();
+            case SectionState.CURRENTLY_REGISTERED:
+                return change.field("Currently Registered")
+                        .oldValue(Integer.toString(oldSeats.getCurrentlyRegistered()))
+                        .newValue(Integer.toString(newSeats.getCurrentlyRegistered()))
+                        .build();
+            case SectionState.GENERAL_SEATS_REMAINING:
+                return change.field("General Seats Remaining")
+                        .oldValue(Integer.toString(oldSeats.getGeneralSeatsRemaining()))
+                        .newValue(Integer.toString(newSeats.getGeneralSeatsRemaining()))
+                        .build();
+            case SectionState.RESTRICTED_SEATS_REMAINING:
+                return change.field("Restricted Seats Remaining")
+                        .oldValue(Integer.toString(oldSeats.getRestrictedSeatsRemaining()))
+                        .newValue(Integer.toString(newSeats.getRestrictedSeatsRemaining()))
+                        .build();
+            default:
+                return change.field("Schedule")
+                        .oldValue(describe(oldSection.getSchedule()))
+                        .newValue(describe(newSection.getSchedule()))
+                        .build();
+        }
+    }
+    
+    private static String describe(Map<Time, Location> schedule) {
+        return schedule.entrySet().stream()
+                .map(e -> e.getKey() + " [" + e.getValue() + "]")
+                .collect(Collectors.joining(", "));
+    }
+    
+    private static class PollState {
+        private String query;
+        private volatile String entityTag;
+        private volatile String lastModified;
+        private volatile long fingerprint;
+        private volatile boolean hasFingerprint;
+        private volatile String status;
+        private volatile SectionState section;
+        
+        private PollState(String query) {
+            this.query = query;
         }
-        return changes;
     }
     
     public static class Builder {
         private List<Section> trackedSections;
+        private ExecutionMode executionMode = ExecutionMode.PLATFORM;
+        private ChangeLog changeLog;
+        private SeatSeries seatSeries;
+        private ChangeBus changeBus;
+        private Rule rule = Rule.NONE;
         
         public Builder trackedSections(List<Section> trackedSections) {
             this.trackedSections = trackedSections;
             return this;
         }
         
+        public Builder executionMode(ExecutionMode executionMode) {
+            this.executionMode = executionMode;
+            return this;
+        }
+        
+        public Builder changeBus(ChangeBus changeBus) {
+            this.changeBus = changeBus;
+            return this;
+        }
+        
+        public Builder changeLog(ChangeLog changeLog) {
+            this.changeLog = changeLog;
+            return this;
+        }
+        
+        public Builder seatSeries(SeatSeries seatSeries) {
+            this.seatSeries = seatSeries;
+            return this;
+        }
+        
+        public Builder rule(Rule rule) {
+            this.rule = rule;
+            return this;
+        }
+        
         public SectionTracker build() {
-            return new SectionTracker(trackedSections);
+            return new SectionTracker(trackedSections, executionMode,
+                    changeBus != null ? changeBus : ChangeBus.newBuilder().build(), changeLog, seatSeries, rule);
         }
     }
     
     public static class Change {
-        private LocalDateTime time;
-        private Section section;
-        private String field;
-        private String oldValue;
-        private String newValue;
+        private final LocalDateTime time;
+        private final Section section;
+        private final String field;
+        private final String oldValue;
+        private final String newValue;
         
         private Change(LocalDateTime time, Section section, String field, String oldValue, String newValue) {
             this.time = time;
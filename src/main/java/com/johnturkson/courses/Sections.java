@@ -1,91 +1,107 @@
 package com.johnturkson.courses;
 
-import java.io.IOException;
-import java.io.UncheckedIOException;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class Sections {
+    private static final Pattern SECTION_PATTERN = Pattern.compile("<tr[^>]+>" +
+            "<td>(?<status>[^<]*)</td>" +
+            "<td><a href=" +
+            "(?<url>[^\\s]+)[^>]*>" +
+            "(?<subject>[^\\s]+)\\s" +
+            "(?<course>[^\\s]+)\\s" +
+            "(?<code>[^<]+)" +
+            "</a></td>" +
+            "<td>(?<activity>[^<]*)</td>" +
+            "<td>(?<term>\\d+)</td>");
+    
     public static Optional<Section> getSection(String subject, String course, String code) {
-        String query = "https://courses.students.ubc.ca/cs/courseschedule?" +
+        return getSectionAsync(subject, course, code).join();
+    }
+    
+    public static CompletableFuture<Optional<Section>> getSectionAsync(String subject, String course, String code) {
+        String query = getSectionQuery(subject, course, code);
+        return Transport.getDefault()
+                .fetch(query, SectionPageParser.bodyHandler())
+                .thenApply(response -> response.body().getSection(query));
+    }
+    
+    static String getSectionQuery(String subject, String course, String code) {
+        return Transport.getDefault().getEndpoint() + "/cs/courseschedule?" +
                 "pname=subjarea&" +
                 "tname=subj-section&" +
                 "dept=" + subject.toUpperCase().trim() + "&" +
                 "course=" + course.toUpperCase().trim() + "&" +
                 "section=" + code.toUpperCase().trim();
-        
-        String response = HttpClient.newHttpClient()
-                .sendAsync(HttpRequest.newBuilder()
-                        .uri(URI.create(query))
-                        .GET()
-                        .build(), HttpResponse.BodyHandlers.ofString())
-                .join()
-                .body();
-        
-        Pattern sectionDetailsPattern = Pattern.compile("<h4>" +
-                "(?<subject>[^\\s]+)\\s" +
-                "(?<code>[^\\s]+)\\s" +
-                "(?<name>[^<]+)\\s" +
-                "\\((?<activity>[^)]*)\\)" +
-                "</h4>" +
-                ".+?" +
-                "<b>Term (?<term>\\d+)</b>");
-        Matcher sectionDetailsMatcher = sectionDetailsPattern.matcher(response);
-        
-        if (sectionDetailsMatcher.find()) {
-            return Optional.of(Section.newBuilder()
-                    .subject(sectionDetailsMatcher.group("subject"))
-                    .course(sectionDetailsMatcher.group("code"))
-                    .code(sectionDetailsMatcher.group("name"))
-                    .activity(sectionDetailsMatcher.group("activity"))
-                    .term(Integer.parseInt(sectionDetailsMatcher.group("term")))
-                    .schedule(parseSectionSchedule(response))
-                    .instructor(parseSectionInstructor(response))
-                    .seats(parseSeatInformation(response))
-                    .url(query)
-                    .build());
-        } else {
-            return Optional.empty();
-        }
     }
     
-    public static List<Section> getSections(String subject, String course) {
-        String query = "https://courses.students.ubc.ca/cs/courseschedule?" +
+    static String getCourseQuery(String subject, String course) {
+        return Transport.getDefault().getEndpoint() + "/cs/courseschedule?" +
                 "pname=subjarea&" +
                 "tname=subj-course&" +
                 "dept=" + subject.trim() + "&" +
                 "course=" + course.trim();
+    }
+    
+    static CompletableFuture<Map<String, String>> getSectionStatuses(String subject, String course) {
+        return Transport.getDefault()
+                .fetch(getCourseQuery(subject, course))
+                .thenApply(response -> {
+                    Map<String, String> statuses = new HashMap<>();
+                    Matcher sectionMatcher = SECTION_PATTERN.matcher(response);
+                    while (sectionMatcher.find()) {
+                        statuses.put(sectionMatcher.group("code").trim(), sectionMatcher.group("status").trim());
+                    }
+                    return statuses;
+                });
+    }
+    
+    static CompletableFuture<Map<Section.Builder, String>> getSectionListings(String subject, String course) {
+        Transport transport = Transport.getDefault();
+        return transport.fetch(getCourseQuery(subject, course))
+                .thenApply(response -> {
+                    Map<Section.Builder, String> listings = new LinkedHashMap<>();
+                    Set<String> urls = new HashSet<>();
+                    Matcher sectionMatcher = SECTION_PATTERN.matcher(response);
+                    while (sectionMatcher.find()) {
+                        String url = transport.resolve(sectionMatcher.group("url").replace("&amp;", "&"));
+                        if (!urls.add(url)) {
+                            continue;
+                        }
+                        listings.put(Section.newBuilder()
+                                .subject(sectionMatcher.group("subject").trim())
+                                .course(sectionMatcher.group("course").trim())
+                                .code(sectionMatcher.group("code").trim())
+                                .activity(sectionMatcher.group("activity").trim())
+                                .term(Integer.parseInt(sectionMatcher.group("term").trim()))
+                                .url(url), url);
+                    }
+                    return listings;
+                });
+    }
+    
+    public static SectionPublisher publishSections(String... subjects) {
+        return SectionPublisher.newBuilder()
+                .subjects(List.of(subjects))
+                .build();
+    }
+    
+    public static List<Section> getSections(String subject, String course) {
+        Transport transport = Transport.getDefault();
+        String response = transport.get(getCourseQuery(subject, course));
         
-        String response = HttpClient.newHttpClient()
-                .sendAsync(HttpRequest.newBuilder()
-                        .uri(URI.create(query))
-                        .GET()
-                        .build(), HttpResponse.BodyHandlers.ofString())
-                .join()
-                .body();
-        
-        Pattern sectionPattern = Pattern.compile("<tr[^>]+>" +
-                "<td>(?<status>[^<]*)</td>" +
-                "<td><a href=" +
-                "(?<url>[^\\s]+)[^>]*>" +
-                "(?<subject>[^\\s]+)\\s" +
-                "(?<course>[^\\s]+)\\s" +
-                "(?<code>[^<]+)" +
-                "</a></td>" +
-                "<td>(?<activity>[^<]*)</td>" +
-                "<td>(?<term>\\d+)</td>");
-        Matcher sectionMatcher = sectionPattern.matcher(response);
+        Matcher sectionMatcher = SECTION_PATTERN.matcher(response);
         
-        Map<Section.Builder, CompletableFuture<String>> sectionBuilders = new LinkedHashMap<>();
+        Map<Section.Builder, CompletableFuture<SectionPageParser>> sectionBuilders = new LinkedHashMap<>();
         
         while (sectionMatcher.find()) {
             Section.Builder partialBuilder = Section.newBuilder()
@@ -94,235 +110,319 @@ public class Sections {
                     .code(sectionMatcher.group("code").trim())
                     .activity(sectionMatcher.group("activity").trim())
                     .term(Integer.parseInt(sectionMatcher.group("term").trim()))
-                    .url("https://courses.students.ubc.ca" +
-                            sectionMatcher.group("url")
-                                    .replace("&amp;", "&"));
-            CompletableFuture<String> remainingDetails = HttpClient.newHttpClient()
-                    .sendAsync(HttpRequest.newBuilder()
-                            .uri(URI.create("https://courses.students.ubc.ca" +
-                                    sectionMatcher.group("url")
-                                            .replace("&amp;", "&")))
-                            .GET()
-                            .build(), HttpResponse.BodyHandlers.ofString())
+                    .url(transport.resolve(sectionMatcher.group("url")
+                            .replace("&amp;", "&")));
+            CompletableFuture<SectionPageParser> remainingDetails = transport.fetch(sectionMatcher.group("url")
+                    .replace("&amp;", "&"), SectionPageParser.bodyHandler())
                     .thenApply(HttpResponse::body);
             sectionBuilders.put(partialBuilder, remainingDetails);
         }
         
         return sectionBuilders.keySet().stream()
                 .map(b -> {
-                    String details = sectionBuilders.get(b).join();
-                    return b.schedule(parseSectionSchedule(details))
-                            .instructor(parseSectionInstructor(details))
-                            .seats(parseSeatInformation(details))
+                    SectionPageParser details = sectionBuilders.get(b).join();
+                    return b.schedule(details.getSchedule())
+                            .instructor(details.getInstructor())
+                            .seats(details.getSeats())
                             .build();
                 })
                 .distinct()
                 .collect(Collectors.toList());
     }
     
+    public static List<Section> getSections(String subject, String course, ExecutionMode mode) {
+        if (mode == ExecutionMode.PLATFORM) {
+            return getSections(subject, course);
+        }
+        
+        Transport transport = Transport.getDefault();
+        String response = transport.get(getCourseQuery(subject, course));
+        Matcher sectionMatcher = SECTION_PATTERN.matcher(response);
+        List<Future<Section>> sections = new ArrayList<>();
+        
+        while (sectionMatcher.find()) {
+            String url = transport.resolve(sectionMatcher.group("url").replace("&amp;", "&"));
+            Section.Builder partialBuilder = Section.newBuilder()
+                    .subject(sectionMatcher.group("subject").trim())
+                    .course(sectionMatcher.group("course").trim())
+                    .code(sectionMatcher.group("code").trim())
+                    .activity(sectionMatcher.group("activity").trim())
+                    .term(Integer.parseInt(sectionMatcher.group("term").trim()))
+                    .url(url);
+            sections.add(mode.getExecutor().submit(() -> {
+                SectionPageParser details = SectionPageParser.parse(transport.get(url));
+                return partialBuilder.schedule(details.getSchedule())
+                        .instructor(details.getInstructor())
+                        .seats(details.getSeats())
+                        .build();
+            }));
+        }
+        
+        Set<Section> distinct = new LinkedHashSet<>();
+        for (Future<Section> section : sections) {
+            try {
+                distinct.add(section.get());
+            } catch (ExecutionException e) {
+                throw new CompletionException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+        }
+        return new ArrayList<>(distinct);
+    }
+    
     public static List<Section> getSections(Course course) {
         return getSections(course.getSubject(), course.getCode());
     }
     
-    private static Map<Time, Location> parseSectionSchedule(String details) {
-        Pattern sectionSchedulePattern = Pattern.compile("<td>(?<term>\\d+)</td>" +
-                "<td>(?<days>[^<]*)</td>" +
-                "<td>(?<startHour>[0-9]|[0-1][0-9]|[2][0-3]):(?<startMinute>[0-5][0-9])</td>" +
-                "<td>(?<endHour>[0-9]|[0-1][0-9]|[2][0-3]):(?<endMinute>[0-5][0-9])</td>" +
-                "<td>(?<name>[^<]*)</td>" +
-                "<td>(?:<[^>]*buildingID=(?<code>[^&]*)[^>]*>)?(?<room>[^<]*)(?:<[^>]*>)?</td>");
-        Matcher sectionScheduleMatcher = sectionSchedulePattern.matcher(details);
-        
-        Map<Time, Location> schedule = new LinkedHashMap<>();
-        while (sectionScheduleMatcher.find()) {
-            schedule.put(Time.newBuilder()
-                    .days(Arrays.asList(sectionScheduleMatcher.group("days").trim().split(" ")))
-                    .startHour(Integer.parseInt(sectionScheduleMatcher.group("startHour")))
-                    .startMinute(Integer.parseInt(sectionScheduleMatcher.group("startMinute")))
-                    .endHour(Integer.parseInt(sectionScheduleMatcher.group("endHour")))
-                    .endMinute(Integer.parseInt(sectionScheduleMatcher.group("endMinute")))
-                    .build(), Location.newBuilder()
-                    .name(sectionScheduleMatcher.group("name").trim())
-                    .code(Objects.requireNonNullElse(sectionScheduleMatcher.group("code"), "").trim())
-                    .room(sectionScheduleMatcher.group("room").trim())
-                    .build());
+    public static void exportAsJSON(List<Section> courses, Path location) {
+        JsonWriter.writeArray(courses, location, Sections::writeJSON);
+    }
+    
+    public static List<Section> importFromJSON(Path location) {
+        try (Stream<Section> sections = streamFromJSON(location)) {
+            return new ArrayList<>(sections.collect(Collectors.toCollection(LinkedHashSet::new)));
         }
-        
-        return schedule;
     }
     
-    private static SeatInformation parseSeatInformation(String details) {
-        Pattern seatInformationPattern = Pattern.compile("<tr>" +
-                "<td[^>]*>Total Seats Remaining[^:]*:</td>" +
-                "<td[^>]*>(?:<[^>]*>)*(?<totalSeatsRemaining>\\d+)(?:</[^>]*>)*</td>" +
-                "</tr>\\s*" +
-                "<tr>" +
-                "<td[^>]*>Currently Registered[^:]*:</td>" +
-                "<td[^>]*>(?:<[^>]*>)*(?<currentlyRegistered>\\d+)(?:</[^>]*>)*</td>" +
-                "</tr>\\s*" +
-                "<tr>" +
-                "<td[^>]*>General Seats Remaining[^:]*:</td>" +
-                "<td[^>]*>(?:<[^>]*>)*(?<generalSeatsRemaining>\\d+)(?:</[^>]*>)*</td>" +
-                "</tr>\\s*" +
-                "<tr>" +
-                "<td[^>]*>Restricted Seats Remaining[^:]*:</td>" +
-                "<td[^>]*>(?:<[^>]*>)*(?<restrictedSeatsRemaining>\\d+)(?:</[^>]*>)*</td>" +
-                "</tr>");
-        Matcher seatInformationMatcher = seatInformationPattern.matcher(details);
-        if (seatInformationMatcher.find()) {
-            return SeatInformation.newBuilder()
-                    .totalSeatsRemaining(Integer.parseInt(seatInformationMatcher.group("totalSeatsRemaining")))
-                    .currentlyRegistered(Integer.parseInt(seatInformationMatcher.group("currentlyRegistered")))
-                    .generalSeatsRemaining(Integer.parseInt(seatInformationMatcher.group("generalSeatsRemaining")))
-                    .restrictedSeatsRemaining(Integer.parseInt(seatInformationMatcher.group("restrictedSeatsRemaining")))
-                    .build();
-        } else {
-            return SeatInformation.newBuilder()
-                    .totalSeatsRemaining(0)
-                    .currentlyRegistered(0)
-                    .generalSeatsRemaining(0)
-                    .restrictedSeatsRemaining(0)
-                    .build();
+    public static Stream<Section> streamFromJSON(Path location) {
+        return JsonReader.streamArray(location, Sections::readJSON);
+    }
+    
+    static void writeJSON(JsonWriter json, Section section) {
+        json.beginObject()
+                .name("subject", section.getSubject())
+                .name("course", section.getCourse())
+                .name("code", section.getCode())
+                .name("activity", section.getActivity())
+                .name("term", section.getTerm())
+                .name("schedule").beginArray();
+        for (Map.Entry<Time, Location> entry : section.getSchedule().entrySet()) {
+            Time time = entry.getKey();
+            json.beginObject()
+                    .name("days", String.join(" ", time.getDays()))
+                    .name("startHour", time.getStartHour())
+                    .name("startMinute", time.getStartMinute())
+                    .name("endHour", time.getEndHour())
+                    .name("endMinute", time.getEndMinute())
+                    .name("name", entry.getValue().getName())
+                    .name("code", entry.getValue().getCode())
+                    .name("room", entry.getValue().getRoom())
+                    .endObject();
         }
+        json.endArray()
+                .name("instructor", section.getInstructor())
+                .name("seats").beginObject()
+                .name("totalSeatsRemaining", section.getSeats().getTotalSeatsRemaining())
+                .name("currentlyRegistered", section.getSeats().getCurrentlyRegistered())
+                .name("generalSeatsRemaining", section.getSeats().getGeneralSeatsRemaining())
+                .name("restrictedSeatsRemaining", section.getSeats().getRestrictedSeatsRemaining())
+                .endObject()
+                .name("url", section.getUrl())
+                .endObject();
     }
     
-    private static String parseSectionInstructor(String details) {
-        Pattern instructorPattern = Pattern.compile("<td>Instructor:\\s*</td>" +
-                "<td>(?:<[^>]*>)?(?<instructor>[^<]*)(?:<[^>]*>)?</td>");
-        Matcher instructorMatcher = instructorPattern.matcher(details);
-        return instructorMatcher.find() ? instructorMatcher.group("instructor").trim() : "";
+    static Section readJSON(JsonReader json) {
+        Section.Builder builder = Section.newBuilder();
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "subject":
+                    builder.subject(json.nextString());
+                    break;
+                case "course":
+                    builder.course(json.nextString());
+                    break;
+                case "code":
+                    builder.code(json.nextString());
+                    break;
+                case "activity":
+                    builder.activity(json.nextString());
+                    break;
+                case "term":
+                    builder.term(json.nextInt());
+                    break;
+                case "schedule":
+                    builder.schedule(readSchedule(json));
+                    break;
+                case "instructor":
+                    builder.instructor(json.nextString());
+                    break;
+                case "seats":
+                    builder.seats(readSeats(json));
+                    break;
+                case "url":
+                    builder.url(json.nextString());
+                    break;
+                default:
+                    json.skipValue();
+            }
+        }
+        json.endObject();
+        return builder.build();
     }
     
-    public static void exportAsJSON(List<Section> courses, Path location) {
-        try {
-            Files.writeString(location, new LinkedHashSet<>(courses).stream()
-                    .map(Section::toJSON)
-                    .map(s -> "\t" + s)
-                    .map(s -> s.replace("\n", "\n\t"))
-                    .collect(Collectors.joining(",\n", "[\n", "\n]")));
-            
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
+    private static Map<Time, Location> readSchedule(JsonReader json) {
+        Map<Time, Location> schedule = new LinkedHashMap<>();
+        json.beginArray();
+        while (json.hasNext()) {
+            Time.Builder time = Time.newBuilder();
+            Location.Builder location = Location.newBuilder();
+            json.beginObject();
+            while (json.hasNext()) {
+                switch (json.nextName()) {
+                    case "days":
+                        time.days(Arrays.asList(json.nextString().split(" ")));
+                        break;
+                    case "startHour":
+                        time.startHour(json.nextInt());
+                        break;
+                    case "startMinute":
+                        time.startMinute(json.nextInt());
+                        break;
+                    case "endHour":
+                        time.endHour(json.nextInt());
+                        break;
+                    case "endMinute":
+                        time.endMinute(json.nextInt());
+                        break;
+                    case "name":
+                        location.name(json.nextString());
+                        break;
+                    case "code":
+                        location.code(json.nextString());
+                        break;
+                    case "room":
+                        location.room(json.nextString());
+                        break;
+                    default:
+                        json.skipValue();
+                }
+            }
+            json.endObject();
+            schedule.put(time.build(), location.build());
         }
+        json.endArray();
+        return schedule;
     }
     
-    public static List<Section> importFromJSON(Path location) {
-        try {
-            String json = Files.readString(location);
-            Pattern sectionPattern = Pattern.compile("\\{\\n\\t\\t" +
-                    "\"subject\": \"(?<subject>[^\"]*)\",\\n\\t\\t" +
-                    "\"course\": \"(?<course>[^\"]*)\",\\n\\t\\t" +
-                    "\"code\": \"(?<code>[^\"]*)\",\\n\\t\\t" +
-                    "\"activity\": \"(?<activity>[^\"]*)\",\\n\\t\\t" +
-                    "\"term\": (?<term>\\d+),\\n\\t\\t" +
-                    "\"schedule\": \\[\\n\\t\\t\\t(?<schedule>\\{[^}]*})\\n\\t\\t],\\n\\t\\t" +
-                    "\"instructor\": \"(?<instructor>[^\"]*)\",\\n\\t\\t" +
-                    "\"seats\": \\{\\n\\t\\t\\t" +
-                    "\"totalSeatsRemaining\": (?<totalSeatsRemaining>\\d+),\\n\\t\\t\\t" +
-                    "\"currentlyRegistered\": (?<currentlyRegistered>\\d+),\\n\\t\\t\\t" +
-                    "\"generalSeatsRemaining\": (?<generalSeatsRemaining>\\d+),\\n\\t\\t\\t" +
-                    "\"restrictedSeatsRemaining\": (?<restrictedSeatsRemaining>\\d+)\\n\\t\\t" +
-                    "},\\n\\t\\t" +
-                    "\"url\": \"(?<url>[^\"]*)\"\\n\\t" +
-                    "}");
-            Matcher sectionMatcher = sectionPattern.matcher(json);
-            Pattern schedulePattern = Pattern.compile("\\{\\s*" +
-                    "\"days\":\\s*\"(?<days>[^\"]*)\",\\s*" +
-                    "\"startHour\":\\s*(?<startHour>[0]?[0-9]|[1][0-9]|[2][0-3]),\\s*" +
-                    "\"startMinute\":\\s*(?<startMinute>[0]?[0-9]|[1-5][0-9]),\\s*" +
-                    "\"endHour\":\\s*(?<endHour>[0]?[0-9]|[1][0-9]|[2][0-3]),\\s*" +
-                    "\"endMinute\":\\s*(?<endMinute>[0]?[0-9]|[1-5][0-9]),\\s*" +
-                    "\"name\":\\s*\"(?<name>[^\"]*)\",\\s*" +
-                    "\"code\":\\s*\"(?<code>[^\"]*)\",\\s*" +
-                    "\"room\":\\s*\"(?<room>[^\"]*)\"\\s*" +
-                    "}");
-            return extractSections(sectionMatcher, schedulePattern);
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
+    private static SeatInformation readSeats(JsonReader json) {
+        SeatInformation.Builder seats = SeatInformation.newBuilder();
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "totalSeatsRemaining":
+                    seats.totalSeatsRemaining(json.nextInt());
+                    break;
+                case "currentlyRegistered":
+                    seats.currentlyRegistered(json.nextInt());
+                    break;
+                case "generalSeatsRemaining":
+                    seats.generalSeatsRemaining(json.nextInt());
+                    break;
+                case "restrictedSeatsRemaining":
+                    seats.restrictedSeatsRemaining(json.nextInt());
+                    break;
+                default:
+                    json.skipValue();
+            }
         }
+        json.endObject();
+        return seats.build();
+    }
+    
+    public static void exportAsSnapshot(List<Section> sections, Path location) {
+        SectionSnapshot.write(sections, location);
+    }
+    
+    public static List<Section> importFromSnapshot(Path location) {
+        return SectionSnapshot.open(location).getSections();
     }
     
     public static void exportAsCSV(List<Section> courses, Path location) {
-        try {
-            Files.writeString(location, new LinkedHashSet<>(courses).stream()
-                    .map(Section::toCSV)
-                    .collect(Collectors.joining("\n")));
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
+        CsvWriter.writeAll(courses, location, Sections::toRecord);
     }
     
     public static List<Section> importFromCSV(Path location) {
-        try {
-            String json = Files.readString(location);
-            Pattern sectionPattern = Pattern.compile("\"(?<subject>[^\"]*)\"," +
-                    "\"(?<course>[^\"]*)\"," +
-                    "\"(?<code>[^\"]*)\"," +
-                    "\"(?<activity>[^\"]*)\"," +
-                    "\"(?<term>\\d+)\"," +
-                    "\"(?<schedule>[^\"]*)\"," +
-                    "\"(?<instructor>[^\"]*)\"," +
-                    "\"(?<totalSeatsRemaining>\\d+)," +
-                    "(?<currentlyRegistered>\\d+)," +
-                    "(?<generalSeatsRemaining>\\d+)," +
-                    "(?<restrictedSeatsRemaining>\\d+)\"," +
-                    "\"(?<url>[^\"]*)\"");
-            Matcher sectionMatcher = sectionPattern.matcher(json);
-            Pattern schedulePattern = Pattern.compile("(?<days>[^,]*)," +
-                    "(?<startHour>[0]?[0-9]|[1][0-9]|[2][0-3])," +
-                    "(?<startMinute>[0]?[0-9]|[1-5][0-9])," +
-                    "(?<endHour>[0]?[0-9]|[1][0-9]|[2][0-3])," +
-                    "(?<endMinute>[0]?[0-9]|[1-5][0-9])," +
-                    "(?<name>[^,]*)," +
-                    "(?<code>[^,]*)," +
-                    "(?<room>[^,]*)");
-            return extractSections(sectionMatcher, schedulePattern);
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
+        return new ArrayList<>(new LinkedHashSet<>(CsvReader.readParallel(location, Sections::fromRecord)));
     }
     
-    private static List<Section> extractSections(Matcher sectionMatcher, Pattern schedulePattern) {
-        Set<Section> sections = new LinkedHashSet<>();
-        while (sectionMatcher.find()) {
-            Matcher scheduleMatcher = schedulePattern.matcher(sectionMatcher.group("schedule"));
-            sections.add(Section.newBuilder()
-                    .subject(sectionMatcher.group("subject"))
-                    .course(sectionMatcher.group("course"))
-                    .code(sectionMatcher.group("code"))
-                    .activity(sectionMatcher.group("activity"))
-                    .term(Integer.parseInt(sectionMatcher.group("term")))
-                    .schedule(parseSchedule(scheduleMatcher))
-                    .instructor(sectionMatcher.group("instructor"))
-                    .seats(SeatInformation.newBuilder()
-                            .totalSeatsRemaining(Integer.parseInt(sectionMatcher.group("totalSeatsRemaining")))
-                            .currentlyRegistered(Integer.parseInt(sectionMatcher.group("currentlyRegistered")))
-                            .generalSeatsRemaining(Integer.parseInt(sectionMatcher.group("generalSeatsRemaining")))
-                            .restrictedSeatsRemaining(Integer.parseInt(sectionMatcher.group("restrictedSeatsRemaining")))
-                            .build())
-                    .url(sectionMatcher.group("url"))
-                    .build());
+    public static Stream<Section> streamFromCSV(Path location) {
+        return CsvReader.stream(location, Sections::fromRecord);
+    }
+    
+    static List<String> toRecord(Section section) {
+        List<String> schedule = new ArrayList<>();
+        for (Map.Entry<Time, Location> entry : section.getSchedule().entrySet()) {
+            Time time = entry.getKey();
+            schedule.addAll(Arrays.asList(String.join(" ", time.getDays()),
+                    String.valueOf(time.getStartHour()),
+                    String.valueOf(time.getStartMinute()),
+                    String.valueOf(time.getEndHour()),
+                    String.valueOf(time.getEndMinute()),
+                    entry.getValue().getName(),
+                    entry.getValue().getCode(),
+                    entry.getValue().getRoom()));
         }
-        return new ArrayList<>(sections);
+        SeatInformation seats = section.getSeats();
+        return Arrays.asList(section.getSubject(),
+                section.getCourse(),
+                section.getCode(),
+                section.getActivity(),
+                String.valueOf(section.getTerm()),
+                CsvWriter.join(schedule),
+                section.getInstructor(),
+                CsvWriter.join(Arrays.asList(String.valueOf(seats.getTotalSeatsRemaining()),
+                        String.valueOf(seats.getCurrentlyRegistered()),
+                        String.valueOf(seats.getGeneralSeatsRemaining()),
+                        String.valueOf(seats.getRestrictedSeatsRemaining()))),
+                section.getUrl());
     }
     
-    private static Map<Time, Location> parseSchedule(Matcher scheduleMatcher) {
-        Map<Time, Location> schedule = new LinkedHashMap<>();
-        while (scheduleMatcher.find()) {
-            schedule.put(Time.newBuilder()
-                    .days(Arrays.stream(scheduleMatcher.group("days")
-                            .split(" "))
-                            .collect(Collectors.toList()))
-                    .startHour(Integer.parseInt(scheduleMatcher.group("startHour")))
-                    .startMinute(Integer.parseInt(scheduleMatcher.group("startMinute")))
-                    .endHour(Integer.parseInt(scheduleMatcher.group("endHour")))
-                    .endMinute(Integer.parseInt(scheduleMatcher.group("endMinute")))
+    static Section fromRecord(List<String> record) {
+        if (record.size() != 9) {
+            throw new IllegalArgumentException("Expected 9 fields in a section record but found " + record.size() + ".");
+        }
+        
+        List<String> schedule = record.get(5).isEmpty() ? List.of() : CsvReader.split(record.get(5));
+        if (schedule.size() % 8 != 0) {
+            throw new IllegalArgumentException("Expected 8 fields per schedule entry but found " + schedule.size() + ".");
+        }
+        Map<Time, Location> entries = new LinkedHashMap<>();
+        for (int i = 0; i < schedule.size(); i += 8) {
+            entries.put(Time.newBuilder()
+                    .days(Arrays.asList(schedule.get(i).split(" ")))
+                    .startHour(Integer.parseInt(schedule.get(i + 1)))
+                    .startMinute(Integer.parseInt(schedule.get(i + 2)))
+                    .endHour(Integer.parseInt(schedule.get(i + 3)))
+                    .endMinute(Integer.parseInt(schedule.get(i + 4)))
                     .build(), Location.newBuilder()
-                    .name(scheduleMatcher.group("name"))
-                    .code(scheduleMatcher.group("code"))
-                    .room(scheduleMatcher.group("room"))
+                    .name(schedule.get(i + 5))
+                    .code(schedule.get(i + 6))
+                    .room(schedule.get(i + 7))
                     .build());
         }
-        return schedule;
+        
+        List<String> seats = CsvReader.split(record.get(7));
+        if (seats.size() != 4) {
+            throw new IllegalArgumentException("Expected 4 seat counts but found " + seats.size() + ".");
+        }
+        return Section.newBuilder()
+                .subject(record.get(0))
+                .course(record.get(1))
+                .code(record.get(2))
+                .activity(record.get(3))
+                .term(Integer.parseInt(record.get(4)))
+                .schedule(entries)
+                .instructor(record.get(6))
+                .seats(SeatInformation.newBuilder()
+                        .totalSeatsRemaining(Integer.parseInt(seats.get(0)))
+                        .currentlyRegistered(Integer.parseInt(seats.get(1)))
+                        .generalSeatsRemaining(Integer.parseInt(seats.get(2)))
+                        .restrictedSeatsRemaining(Integer.parseInt(seats.get(3)))
+                        .build())
+                .url(record.get(8))
+                .build();
     }
 }
@@ -0,0 +1,111 @@
+package com.johnturkson.courses;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+public class StubServer {
+    private HttpServer server;
+    private ScheduledExecutorService responder;
+    private Function<URI, Optional<String>> pages;
+    private Duration latency;
+    private AtomicLong requests;
+    
+    private StubServer(int port, Function<URI, Optional<String>> pages, Duration latency) {
+        try {
+            this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.responder = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "stub-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.pages = pages;
+        this.latency = latency;
+        this.requests = new AtomicLong();
+        this.server.setExecutor(responder);
+        this.server.createContext("/", this::handle);
+    }
+    
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+    
+    public StubServer start() {
+        server.start();
+        return this;
+    }
+    
+    public void stop() {
+        server.stop(0);
+        responder.shutdownNow();
+    }
+    
+    public String getEndpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+    
+    public long getRequests() {
+        return requests.get();
+    }
+    
+    private void handle(HttpExchange exchange) {
+        requests.incrementAndGet();
+        Optional<String> page = pages.apply(exchange.getRequestURI());
+        responder.schedule(() -> respond(exchange, page), latency.toNanos(), TimeUnit.NANOSECONDS);
+    }
+    
+    private static void respond(HttpExchange exchange, Optional<String> page) {
+        try {
+            byte[] body = page.orElse("").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+            exchange.sendResponseHeaders(page.isPresent() ? 200 : 404, body.length == 0 ? -1 : body.length);
+            if (body.length > 0) {
+                exchange.getResponseBody().write(body);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            exchange.close();
+        }
+    }
+    
+    public static class Builder {
+        private int port;
+        private Function<URI, Optional<String>> pages = uri -> Optional.empty();
+        private Duration latency = Duration.ZERO;
+        
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+        
+        public Builder pages(Function<URI, Optional<String>> pages) {
+            this.pages = pages;
+            return this;
+        }
+        
+        public Builder latency(Duration latency) {
+            this.latency = latency;
+            return this;
+        }
+        
+        public StubServer build() {
+            return new StubServer(port, pages, latency);
+        }
+    }
+}
@@ -1,17 +1,15 @@
 package com.johnturkson.courses;
 
-import java.io.IOException;
-import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class Subjects {
     // public static Optional<Subject> getSubjectByCode(String code) {
@@ -62,69 +60,79 @@ public class Subjects {
     // }
     
     public static List<Subject> importFromJSON(Path location) {
-        try {
-            String json = Files.readString(location);
-            Pattern subjectPattern = Pattern.compile("\\{\\s*" +
-                    "\"code\":\\s*\"(?<code>[^\"]*)\",\\s*" +
-                    "\"name\":\\s*\"(?<name>[^\"]*)\",\\s*" +
-                    "\"faculty\":\\s*\"(?<faculty>[^\"]*)\",\\s*" +
-                    "\"url\":\\s*\"(?<url>[^\"]*)\"\\s*" +
-                    "}");
-            Matcher subjectMatcher = subjectPattern.matcher(json);
-            return extractSubjects(subjectMatcher);
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
+        try (Stream<Subject> subjects = streamFromJSON(location)) {
+            return new ArrayList<>(subjects.collect(Collectors.toCollection(LinkedHashSet::new)));
         }
     }
     
+    public static Stream<Subject> streamFromJSON(Path location) {
+        return JsonReader.streamArray(location, Subjects::readJSON);
+    }
+    
     public static void exportAsJSON(List<Subject> subjects, Path location) {
-        try {
-            Files.writeString(location, new LinkedHashSet<>(subjects).stream()
-                    .map(Subject::toJSON)
-                    .map(s -> "\t" + s)
-                    .map(s -> s.replace("\n", "\n\t"))
-                    .collect(Collectors.joining(",\n", "[\n", "\n]")));
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
+        JsonWriter.writeArray(subjects, location, Subjects::writeJSON);
+    }
+    
+    static void writeJSON(JsonWriter json, Subject subject) {
+        json.beginObject()
+                .name("code", subject.getCode())
+                .name("name", subject.getName())
+                .name("faculty", subject.getFaculty())
+                .name("url", subject.getUrl())
+                .endObject();
+    }
+    
+    static Subject readJSON(JsonReader json) {
+        Subject.Builder builder = Subject.newBuilder();
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "code":
+                    builder.code(json.nextString());
+                    break;
+                case "name":
+                    builder.name(json.nextString());
+                    break;
+                case "faculty":
+                    builder.faculty(json.nextString());
+                    break;
+                case "url":
+                    builder.url(json.nextString());
+                    break;
+                default:
+                    json.skipValue();
+            }
         }
+        json.endObject();
+        return builder.build();
     }
     
     public static List<Subject> importFromCSV(Path location) {
-        try {
-            String csv = Files.readString(location);
-            Pattern subjectPattern = Pattern.compile("\"(?<code>[^\"]*)\"," +
-                    "\"(?<name>[^\"]*)\"," +
-                    "\"(?<faculty>[^\"]*)\"," +
-                    "\"(?<url>[^\"]*)\"");
-            Matcher subjectMatcher = subjectPattern.matcher(csv);
-            return extractSubjects(subjectMatcher);
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
+        return new ArrayList<>(new LinkedHashSet<>(CsvReader.readParallel(location, Subjects::fromRecord)));
+    }
+    
+    public static Stream<Subject> streamFromCSV(Path location) {
+        return CsvReader.stream(location, Subjects::fromRecord);
     }
     
     public static void exportAsCSV(List<Subject> subjects, Path location) {
-        try {
-            Files.writeString(location, new LinkedHashSet<>(subjects).stream()
-                    .map(Subject::toCSV)
-                    .collect(Collectors.joining("\n")));
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
+        CsvWriter.writeAll(subjects, location, Subjects::toRecord);
+    }
+    
+    static List<String> toRecord(Subject subject) {
+        return Arrays.asList(subject.getCode(), subject.getName(), subject.getFaculty(), subject.getUrl());
     }
     
-    private static List<Subject> extractSubjects(Matcher subjectMatcher) {
-        Set<Subject> subjects = new LinkedHashSet<>();
-        while (subjectMatcher.find()) {
-            subjects.add(Subject.newBuilder()
-                    .code(subjectMatcher.group("code"))
-                    .name(subjectMatcher.group("name"))
-                    .faculty(subjectMatcher.group("faculty")
-                            .replace("\\\\", "\\")
-                            .replace("\\\"", "\""))
-                    .url(subjectMatcher.group("url"))
-                    .build());
+    static Subject fromRecord(List<String> record) {
+        if (record.size() != 4) {
+            throw new IllegalArgumentException("Expected 4 fields in a subject record but found " + record.size() + ".");
         }
-        return new ArrayList<>(subjects);
+        
+        return Subject.newBuilder()
+                .code(record.get(0))
+                .name(record.get(1))
+                .faculty(record.get(2))
+                .url(record.get(3))
+                .build();
     }
 }
@@ -0,0 +1,472 @@
+package com.johnturkson.courses;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+public class TimetableGenerator {
+    private static final int TASKS_PER_THREAD = 16;
+    private List<Section> candidates;
+    private boolean feasible;
+    private int[][] variables;
+    private long[][] domains;
+    private long[][] conflicts;
+    private ForkJoinPool pool;
+    
+    private TimetableGenerator(List<Section> sections, Set<String> ignoredActivities, Rule rule, ForkJoinPool pool) {
+        Map<String, List<Integer>> activities = new LinkedHashMap<>();
+        Map<String, Integer> courses = new HashMap<>();
+        List<Section> candidates = new ArrayList<>();
+        List<Integer> courseOf = new ArrayList<>();
+        for (Section section : new LinkedHashSet<>(sections)) {
+            if (ignoredActivities.contains(section.getActivity()) || !rule.test(section)) {
+                continue;
+            }
+            String course = section.getSubject().trim() + " " + section.getCourse().trim();
+            activities.computeIfAbsent(course + " " + section.getActivity().trim(), k -> new ArrayList<>())
+                    .add(candidates.size());
+            courseOf.add(courses.computeIfAbsent(course, k -> courses.size()));
+            candidates.add(section);
+        }
+        
+        // An activity with a required section may only take that section, and no timetable is generated when a
+        // required section is not a candidate
+        List<int[]> choices = new ArrayList<>();
+        int required = 0;
+        for (Map.Entry<String, List<Integer>> activity : activities.entrySet()) {
+            int[] requiredCandidates = activity.getValue().stream()
+                    .filter(c -> rule.isRequired(candidates.get(c)))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            if (requiredCandidates.length > 1) {
+                throw new IllegalArgumentException("Only one section of " + activity.getKey() + " can be required.");
+            }
+            required += requiredCandidates.length;
+            choices.add(requiredCandidates.length > 0 ? requiredCandidates :
+                    activity.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+        
+        int words = (candidates.size() + 63) >>> 6;
+        this.candidates = candidates;
+        this.feasible = required == rule.getRequiredCount();
+        this.variables = choices.toArray(new int[0][]);
+        this.domains = new long[variables.length][words];
+        for (int v = 0; v < variables.length; v++) {
+            for (int candidate : variables[v]) {
+                domains[v][candidate >>> 6] |= 1L << candidate;
+            }
+        }
+        this.conflicts = new long[candidates.size()][words];
+        for (int i = 0; i < candidates.size(); i++) {
+            Section a = candidates.get(i);
+            for (int j = i + 1; j < candidates.size(); j++) {
+                Section b = candidates.get(j);
+                boolean conflicting = a.getTerm() == b.getTerm() ?
+                        a.getOccupancy().intersects(b.getOccupancy()) :
+                        rule.isSameTerm() && courseOf.get(i).equals(courseOf.get(j));
+                if (conflicting) {
+                    conflicts[i][j >>> 6] |= 1L << j;
+                    conflicts[j][i >>> 6] |= 1L << i;
+                }
+            }
+        }
+        this.pool = pool;
+    }
+    
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+    
+    public long count() {
+        if (!feasible) {
+            return 0;
+        }
+        
+        return pool.invoke(new Search(null, null, Long.MAX_VALUE, new AtomicLong(), initialState(),
+                new int[variables.length], 0, 1, null));
+    }
+    
+    public List<List<Section>> generate() {
+        return generate(Long.MAX_VALUE);
+    }
+    
+    public List<List<Section>> generate(long limit) {
+        if (!feasible) {
+            return List.of();
+        }
+        
+        List<int[]> solutions = new ArrayList<>();
+        AtomicLong found = new AtomicLong();
+        pool.invoke(new Search(solutions, null, limit, found, initialState(), new int[variables.length], 0, 1,
+                null));
+        
+        List<List<Section>> timetables = new ArrayList<>();
+        for (int i = 0; i < solutions.size() && i < limit; i++) {
+            timetables.add(toSections(solutions.get(i)));
+        }
+        return timetables;
+    }
+    
+    // The consumer may be called from several threads at once
+    public void forEach(Consumer<List<Section>> consumer) {
+        if (!feasible) {
+            return;
+        }
+        
+        pool.invoke(new Search(null, a -> consumer.accept(toSections(a)), Long.MAX_VALUE, new AtomicLong(),
+                initialState(), new int[variables.length], 0, 1, null));
+    }
+    
+    public List<Ranking> rank(int count, Criterion... criteria) {
+        return rank(count, List.of(criteria));
+    }
+    
+    // Branches that cannot beat the worst kept timetable are skipped, so ties with the last result may be left out
+    public List<Ranking> rank(int count, List<Criterion> criteria) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Number of timetables must be at least one.");
+        }
+        
+        if (!feasible) {
+            return List.of();
+        }
+        
+        Ranked ranked = new Ranked(count, criteria);
+        pool.invoke(new Search(null, null, Long.MAX_VALUE, new AtomicLong(), initialState(), new int[variables.length],
+                0, 1, ranked));
+        return ranked.getRankings();
+    }
+    
+    public List<Section> getCandidates() {
+        return candidates;
+    }
+    
+    public boolean isFeasible() {
+        return feasible;
+    }
+    
+    public int getActivityCount() {
+        return variables.length;
+    }
+    
+    private long[] initialState() {
+        long[] alive = new long[(candidates.size() + 63) >>> 6];
+        for (long[] domain : domains) {
+            for (int i = 0; i < alive.length; i++) {
+                alive[i] |= domain[i];
+            }
+        }
+        return alive;
+    }
+    
+    private List<Section> toSections(int[] assignment) {
+        List<Section> sections = new ArrayList<>(assignment.length);
+        for (int candidate : assignment) {
+            sections.add(candidates.get(candidate));
+        }
+        return sections;
+    }
+    
+    private static int count(long[] alive, long[] domain) {
+        int count = 0;
+        for (int i = 0; i < alive.length; i++) {
+            count += Long.bitCount(alive[i] & domain[i]);
+        }
+        return count;
+    }
+    
+    private class Search extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+        private List<int[]> solutions;
+        private Consumer<int[]> sink;
+        private long limit;
+        private AtomicLong found;
+        private long[] alive;
+        private int[] assignment;
+        private int depth;
+        private long width;
+        private Ranked ranked;
+        private List<Section> partial;
+        
+        private Search(List<int[]> solutions, Consumer<int[]> sink, long limit, AtomicLong found, long[] alive,
+                       int[] assignment, int depth, long width, Ranked ranked) {
+            this.solutions = solutions;
+            this.sink = sink;
+            this.limit = limit;
+            this.found = found;
+            this.alive = alive;
+            this.assignment = assignment;
+            this.depth = depth;
+            this.width = width;
+            this.ranked = ranked;
+        }
+        
+        @Override
+        protected Long compute() {
+            if (variables.length == 0 || found.get() >= limit) {
+                return 0L;
+            }
+            if (depth == 0) {
+                Arrays.fill(assignment, -1);
+            }
+            if (ranked != null) {
+                partial = new ArrayList<>(variables.length);
+                for (int candidate : assignment) {
+                    if (candidate >= 0) {
+                        partial.add(candidates.get(candidate));
+                    }
+                }
+                if (ranked.isPruned(partial)) {
+                    return 0L;
+                }
+            }
+            
+            int variable = select(alive);
+            if (variable < 0) {
+                return 0L;
+            }
+            int branches = count(alive, domains[variable]);
+            if (depth == variables.length - 1 || width * branches > (long) pool.getParallelism() * TASKS_PER_THREAD) {
+                long[][] states = new long[variables.length - depth + 1][];
+                for (int i = 0; i < states.length; i++) {
+                    states[i] = new long[alive.length];
+                }
+                System.arraycopy(alive, 0, states[0], 0, alive.length);
+                return search(states, depth);
+            }
+            
+            List<Search> children = new ArrayList<>(branches);
+            for (int candidate : variables[variable]) {
+                if ((alive[candidate >>> 6] & 1L << candidate) != 0) {
+                    int[] next = assignment.clone();
+                    next[variable] = candidate;
+                    children.add(new Search(solutions == null ? null : new ArrayList<>(), sink, limit, found,
+                            exclude(alive, candidate, new long[alive.length]), next, depth + 1, width * branches,
+                            ranked));
+                }
+            }
+            
+            long total = 0;
+            for (Search child : invokeAll(children)) {
+                total += child.join();
+                if (solutions != null) {
+                    solutions.addAll(child.solutions);
+                }
+            }
+            return total;
+        }
+        
+        private long search(long[][] states, int level) {
+            long[] state = states[level - depth];
+            if (level == variables.length) {
+                found.incrementAndGet();
+                emit(assignment);
+                return 1;
+            }
+            
+            int variable = select(state);
+            if (variable < 0) {
+                return 0;
+            }
+            
+            long total = 0;
+            long[] next = states[level - depth + 1];
+            for (int candidate : variables[variable]) {
+                if ((state[candidate >>> 6] & 1L << candidate) == 0) {
+                    continue;
+                }
+                if (found.get() >= limit) {
+                    break;
+                }
+                assignment[variable] = candidate;
+                if (ranked == null) {
+                    exclude(state, candidate, next);
+                    total += search(states, level + 1);
+                    continue;
+                }
+                
+                partial.add(candidates.get(candidate));
+                if (!ranked.isPruned(partial)) {
+                    exclude(state, candidate, next);
+                    total += search(states, level + 1);
+                }
+                partial.remove(partial.size() - 1);
+            }
+            assignment[variable] = -1;
+            return total;
+        }
+        
+        // Returns -1 when an activity has no candidates left
+        private int select(long[] state) {
+            int best = -2;
+            int fewest = Integer.MAX_VALUE;
+            for (int v = 0; v < variables.length; v++) {
+                if (assignment[v] >= 0) {
+                    continue;
+                }
+                int remaining = count(state, domains[v]);
+                if (remaining == 0) {
+                    return -1;
+                }
+                if (remaining < fewest) {
+                    fewest = remaining;
+                    best = v;
+                }
+            }
+            return best;
+        }
+        
+        private long[] exclude(long[] state, int candidate, long[] next) {
+            long[] conflicting = conflicts[candidate];
+            for (int i = 0; i < state.length; i++) {
+                next[i] = state[i] & ~conflicting[i];
+            }
+            return next;
+        }
+        
+        private void emit(int[] assignment) {
+            if (ranked != null) {
+                ranked.offer(assignment, partial);
+            } else if (sink != null) {
+                sink.accept(assignment);
+            } else if (solutions != null) {
+                solutions.add(assignment.clone());
+            }
+        }
+    }
+    
+    private class Ranked {
+        private int count;
+        private List<Criterion> criteria;
+        private PriorityQueue<Ranking> best;
+        private volatile double threshold;
+        
+        private Ranked(int count, List<Criterion> criteria) {
+            this.count = count;
+            this.criteria = criteria;
+            this.best = new PriorityQueue<>(count, Comparator.comparingDouble(Ranking::getCost).reversed());
+            this.threshold = Double.POSITIVE_INFINITY;
+        }
+        
+        private boolean isPruned(List<Section> partial) {
+            double limit = threshold;
+            if (limit == Double.POSITIVE_INFINITY) {
+                return false;
+            }
+            
+            double bound = 0;
+            for (Criterion criterion : criteria) {
+                bound += criterion.bound(partial);
+                if (bound >= limit) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        private void offer(int[] assignment, List<Section> sections) {
+            double cost = 0;
+            for (Criterion criterion : criteria) {
+                cost += criterion.cost(sections);
+            }
+            if (cost >= threshold) {
+                return;
+            }
+            
+            synchronized (this) {
+                if (best.size() == count && cost >= best.peek().getCost()) {
+                    return;
+                }
+                best.add(new Ranking(toSections(assignment), cost));
+                if (best.size() > count) {
+                    best.poll();
+                }
+                if (best.size() == count) {
+                    threshold = best.peek().getCost();
+                }
+            }
+        }
+        
+        private synchronized List<Ranking> getRankings() {
+            List<Ranking> rankings = new ArrayList<>(best);
+            rankings.sort(Comparator.comparingDouble(Ranking::getCost));
+            return rankings;
+        }
+    }
+    
+    public static class Ranking {
+        private List<Section> sections;
+        private double cost;
+        
+        private Ranking(List<Section> sections, double cost) {
+            this.sections = sections;
+            this.cost = cost;
+        }
+        
+        public List<Section> getSections() {
+            return sections;
+        }
+        
+        public double getCost() {
+            return cost;
+        }
+        
+        public Timetable toTimetable() {
+            return Timetable.newBuilder()
+                    .sections(sections)
+                    .build();
+        }
+    }
+    
+    public static class Builder {
+        private List<Section> sections = new ArrayList<>();
+        private Set<String> ignoredActivities = new LinkedHashSet<>(List.of("Waiting List"));
+        private Rule rule = Rule.NONE;
+        private ForkJoinPool pool = ForkJoinPool.commonPool();
+        
+        public Builder sections(List<Section> sections) {
+            this.sections.addAll(sections);
+            return this;
+        }
+        
+        public Builder course(String subject, String course) {
+            sections.addAll(Sections.getSections(subject, course));
+            return this;
+        }
+        
+        public Builder course(Course course) {
+            sections.addAll(Sections.getSections(course));
+            return this;
+        }
+        
+        public Builder ignoreActivity(String activity) {
+            ignoredActivities.add(activity);
+            return this;
+        }
+        
+        public Builder rule(Rule rule) {
+            this.rule = rule;
+            return this;
+        }
+        
+        public Builder pool(ForkJoinPool pool) {
+            this.pool = pool;
+            return this;
+        }
+        
+        public TimetableGenerator build() {
+            return new TimetableGenerator(sections, ignoredActivities, rule, pool);
+        }
+    }
+}
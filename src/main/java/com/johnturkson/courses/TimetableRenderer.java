@@ -0,0 +1,139 @@
+package com.johnturkson.courses;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public class TimetableRenderer {
+    public static final List<String> DAYS = List.of("Mon", "Tue", "Wed", "Thu", "Fri");
+    public static final int ROWS = (Timetable.TIMETABLE_END_TIME - Timetable.TIMETABLE_START_TIME + 1) * 4;
+    public static final int WIDTH = Timetable.ROW_HEADER_WIDTH + Timetable.COLUMN_WIDTH * DAYS.size();
+    // Reused between calls, so a renderer must not be shared between threads
+    private char[][] grid;
+    
+    public TimetableRenderer() {
+        this.grid = new char[ROWS][WIDTH];
+    }
+    
+    public void render(List<Section> sections, Appendable out) {
+        for (Map.Entry<Integer, List<Section>> term : Timetable.getSectionsByTerm(sections).entrySet()) {
+            String heading = "Term " + term.getKey();
+            int padding = Math.max(0, WIDTH - heading.length());
+            try {
+                appendSpaces(out, padding / 2);
+                out.append(heading);
+                appendSpaces(out, padding - padding / 2);
+                out.append('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            renderTerm(term.getValue(), out);
+            append(out, "\n");
+        }
+    }
+    
+    // Sections that conflict with an earlier one are left out
+    public void renderTerm(List<Section> sections, Appendable out) {
+        clear();
+        for (Section section : Timetable.withoutConflicts(sections)) {
+            String label = section.getSubject() + " " + section.getCourse() + " " + section.getCode();
+            for (Time time : section.getSchedule().keySet()) {
+                for (int day = 0; day < DAYS.size(); day++) {
+                    if (time.getDays().contains(DAYS.get(day))) {
+                        drawBox(Timetable.ROW_HEADER_WIDTH + day * Timetable.COLUMN_WIDTH, time, label);
+                    }
+                }
+            }
+        }
+        
+        try {
+            for (char[] row : grid) {
+                if (out instanceof StringBuilder) {
+                    ((StringBuilder) out).append(row).append('\n');
+                } else if (out instanceof Writer) {
+                    ((Writer) out).write(row);
+                    out.append('\n');
+                } else {
+                    out.append(CharBuffer.wrap(row)).append('\n');
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private void clear() {
+        for (int row = 0; row < ROWS; row++) {
+            Arrays.fill(grid[row], ' ');
+            if (row % 2 == 0) {
+                int hour = Timetable.TIMETABLE_START_TIME + row / 4;
+                int column = write(row, 0, Integer.toString(hour > 12 ? hour - 12 : hour));
+                write(row, column, row % 4 == 0 ? "00" : "30");
+            }
+        }
+    }
+    
+    private void drawBox(int column, Time time, String label) {
+        int startRow = (time.getStartHour() - Timetable.TIMETABLE_START_TIME) * 4 + time.getStartMinute() / 15;
+        int endRow = (time.getEndHour() - Timetable.TIMETABLE_START_TIME) * 4 + time.getEndMinute() / 15;
+        
+        // Boxes that share an edge merge into a single divider
+        drawEdge(startRow, column);
+        drawEdge(endRow, column);
+        
+        for (int row = Math.max(0, startRow + 1); row <= Math.min(ROWS - 1, endRow - 1); row++) {
+            fill(row, column, '|', ' ');
+        }
+        
+        int labelRow = startRow + (endRow - startRow) / 2;
+        if (labelRow >= 0 && labelRow < ROWS) {
+            int width = Timetable.COLUMN_WIDTH - 2;
+            String text = label.length() > width ? label.substring(0, width) : label;
+            fill(labelRow, column, '|', ' ');
+            write(labelRow, column + 1 + (width - text.length()) / 2, text);
+        }
+    }
+    
+    private void drawEdge(int row, int column) {
+        if (row < 0 || row >= ROWS) {
+            return;
+        }
+        
+        char[] line = grid[row];
+        boolean corner = line[column] == '+' && line[column + Timetable.COLUMN_WIDTH - 1] == '+';
+        for (int i = column + 1; corner && i < column + Timetable.COLUMN_WIDTH - 1; i++) {
+            corner = line[i] == '-';
+        }
+        fill(row, column, corner ? '|' : '+', '-');
+    }
+    
+    private void fill(int row, int column, char edge, char inside) {
+        char[] line = grid[row];
+        line[column] = edge;
+        Arrays.fill(line, column + 1, column + Timetable.COLUMN_WIDTH - 1, inside);
+        line[column + Timetable.COLUMN_WIDTH - 1] = edge;
+    }
+    
+    private int write(int row, int column, String text) {
+        text.getChars(0, text.length(), grid[row], column);
+        return column + text.length();
+    }
+    
+    private static void appendSpaces(Appendable out, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            out.append(' ');
+        }
+    }
+    
+    private static void append(Appendable out, CharSequence text) {
+        try {
+            out.append(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
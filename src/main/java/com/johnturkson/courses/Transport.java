@@ -0,0 +1,188 @@
+package com.johnturkson.courses;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class Transport {
+    public static final String DEFAULT_ENDPOINT = "https://courses.students.ubc.ca";
+    private static volatile Transport defaultTransport;
+    private String endpoint;
+    private HttpClient client;
+    private ExecutorService executor;
+    private Duration requestTimeout;
+    private RateLimiter limiter;
+    private ResponseCache cache;
+    
+    private Transport(String endpoint, int threads, Duration connectTimeout, Duration requestTimeout, RateLimiter limiter,
+                      ResponseCache cache) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be at least one.");
+        }
+        
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+                30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread thread = new Thread(r, "transport-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        
+        this.endpoint = endpoint.endsWith("/") ? endpoint.substring(0, endpoint.length() - 1) : endpoint;
+        this.executor = executor;
+        this.requestTimeout = requestTimeout;
+        this.limiter = limiter;
+        this.cache = cache;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(connectTimeout)
+                .executor(executor)
+                .build();
+    }
+    
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+    
+    public static Transport getDefault() {
+        if (defaultTransport == null) {
+            synchronized (Transport.class) {
+                if (defaultTransport == null) {
+                    defaultTransport = newBuilder().build();
+                }
+            }
+        }
+        return defaultTransport;
+    }
+    
+    public static void setDefault(Transport transport) {
+        defaultTransport = transport;
+    }
+    
+    public String getEndpoint() {
+        return endpoint;
+    }
+    
+    public HttpClient getClient() {
+        return client;
+    }
+    
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+    
+    public RateLimiter getLimiter() {
+        return limiter;
+    }
+    
+    public Optional<ResponseCache> getCache() {
+        return Optional.ofNullable(cache);
+    }
+    
+    public String resolve(String path) {
+        return path.startsWith("http://") || path.startsWith("https://") ? path : endpoint + path;
+    }
+    
+    public CompletableFuture<String> fetch(String url) {
+        return fetch(url, HttpResponse.BodyHandlers.ofString()).thenApply(HttpResponse::body);
+    }
+    
+    public <T> CompletableFuture<HttpResponse<T>> fetch(String url, HttpResponse.BodyHandler<T> handler) {
+        return fetch(url, Map.of(), handler);
+    }
+    
+    public <T> CompletableFuture<HttpResponse<T>> fetch(String url, Map<String, String> headers, HttpResponse.BodyHandler<T> handler) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(resolve(url)))
+                .timeout(requestTimeout)
+                .GET();
+        headers.forEach(builder::header);
+        HttpRequest request = builder.build();
+        
+        // Conditional requests are revalidations and always go to the server
+        if (cache == null || !headers.isEmpty()) {
+            return limiter.submit(getSubject(url), () -> client.sendAsync(request, handler));
+        }
+        Optional<CompletableFuture<HttpResponse<T>>> cached = cache.replay(request, handler);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        return limiter.submit(getSubject(url), () -> client.sendAsync(request, cache.record(request, handler)));
+    }
+    
+    public String get(String url) {
+        return fetch(url).join();
+    }
+    
+    private static String getSubject(String url) {
+        int start = url.indexOf("dept=");
+        if (start < 0) {
+            return "";
+        }
+        int end = url.indexOf('&', start);
+        return url.substring(start + 5, end < 0 ? url.length() : end);
+    }
+    
+    public static class Builder {
+        private String endpoint = DEFAULT_ENDPOINT;
+        private int threads = 4;
+        private Duration connectTimeout = Duration.ofSeconds(10);
+        private Duration requestTimeout = Duration.ofSeconds(30);
+        private RateLimiter limiter;
+        private ResponseCache cache = ResponseCache.newBuilder().build();
+        
+        public Builder endpoint(String endpoint) {
+            this.endpoint = endpoint;
+            return this;
+        }
+        
+        public Builder threads(int threads) {
+            this.threads = threads;
+            return this;
+        }
+        
+        public Builder connectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+        
+        public Builder requestTimeout(Duration requestTimeout) {
+            this.requestTimeout = requestTimeout;
+            return this;
+        }
+        
+        public Builder limiter(RateLimiter limiter) {
+            this.limiter = limiter;
+            return this;
+        }
+        
+        public Builder cache(ResponseCache cache) {
+            this.cache = cache;
+            return this;
+        }
+        
+        public Builder noCache() {
+            this.cache = null;
+            return this;
+        }
+        
+        public Transport build() {
+            return new Transport(endpoint, threads, connectTimeout, requestTimeout,
+                    limiter != null ? limiter : RateLimiter.newBuilder().build(), cache);
+        }
+    }
+}